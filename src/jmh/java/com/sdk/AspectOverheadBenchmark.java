@@ -0,0 +1,57 @@
+package com.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+
+// Cost of the findElement advice on the success path (selector already registered)
+// against the same lookup through a method the aspect does not advise.
+// Run with -Pjmh.args='-prof gc' to see the allocation per call.
+//
+// Regression guard for wovenFindElement: about 5M ops/s and under 300 B/op. Nothing on this path may
+// normalize a page URL or build a string key (promotions are read from the session's current page entry);
+// a URL normalization per call once took it to 0.9M ops/s and 776 B/op.
+@State(Scope.Benchmark)
+public class AspectOverheadBenchmark {
+
+    private StubHealingServer server;
+    private FakeWebDriver driver;
+    private By by;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = BenchmarkSupport.startServer();
+        driver = new FakeWebDriver("https://example.com/login");
+        driver.addElement("By.id: username", "input", "", Map.of("id", "username", "type", "text"));
+        by = By.id("username");
+        // First call registers the selector, the benchmark measures the hit path after it
+        driver.findElement(by);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public WebElement wovenFindElement() {
+        return driver.findElement(by);
+    }
+
+    // By created per call, as in driver.findElement(By.id("username")): the selector key cache misses
+    @Benchmark
+    public WebElement wovenFindElementNewBy() {
+        return driver.findElement(By.id("username"));
+    }
+
+    @Benchmark
+    public WebElement unwovenLookup() {
+        return driver.lookup(by);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sdk;
+
+import java.io.IOException;
+
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    // Starts a stub healing server and points the SDK at it. Must run before the aspect is first used
+    // in the forked JVM, SelfHealingConfig reads the base URL once.
+    static StubHealingServer startServer() throws IOException {
+        StubHealingServer server = new StubHealingServer();
+        System.setProperty("selfhealing.baseUrl", server.baseUrl());
+        return server;
+    }
+}
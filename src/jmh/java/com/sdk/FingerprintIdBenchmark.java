@@ -0,0 +1,24 @@
+package com.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+
+// Fingerprint ID generation from parallel test threads: UUID.randomUUID() shares one SecureRandom
+@State(Scope.Benchmark)
+@Threads(8)
+public class FingerprintIdBenchmark {
+
+    @Benchmark
+    public UUID randomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID timeOrderedId() {
+        return FingerprintIds.next();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+
+// A broken locator healed through the stub server, end to end through the aspect
+@State(Scope.Benchmark)
+public class HealPathBenchmark {
+
+    private StubHealingServer server;
+    private FakeWebDriver driver;
+    private By broken;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = BenchmarkSupport.startServer();
+        server.addHealRule("By.id: save", "By.id: save-v2");
+        driver = new FakeWebDriver("https://example.com/settings");
+        driver.addElement("By.id: save-v2", "button", "Save", Map.of("id", "save-v2"));
+        broken = By.id("save");
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    // Every call goes to /heal-selector: SDK caches, promotion and local healing are off
+    @Benchmark
+    @Fork(jvmArgsAppend = {"-Dselfhealing.healCache.ttlMs=0", "-Dselfhealing.healCache.negativeTtlMs=0",
+            "-Dselfhealing.promotion.enabled=false", "-Dselfhealing.localHealing.enabled=false"})
+    public WebElement remoteHeal() {
+        return driver.findElement(broken);
+    }
+
+    // Default configuration: after the first heal the selector is answered without the service
+    @Benchmark
+    public WebElement healWithDefaults() {
+        return driver.findElement(broken);
+    }
+}
@@ -0,0 +1,35 @@
+package com.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openqa.selenium.By;
+
+@State(Scope.Benchmark)
+public class SelectorParsingBenchmark {
+
+    private final String idSelector = "By.id: username";
+    private final String xpathSelector = "By.xpath: //a[contains(text(), \"Sign in\")]";
+    private final By cssBy = By.cssSelector(".btn-primary > span");
+    private final By xpathBy = By.xpath("//a[contains(text(), \"Sign in\")]");
+
+    @Benchmark
+    public By parseIdSelector() {
+        return SelfHealingSeleniumAspect.parseSelectorString(idSelector);
+    }
+
+    @Benchmark
+    public By parseXPathSelector() {
+        return SelfHealingSeleniumAspect.parseSelectorString(xpathSelector);
+    }
+
+    @Benchmark
+    public String extractCssSelector() {
+        return SelfHealingSeleniumAspect.extractCssSelectorFromBy(cssBy);
+    }
+
+    @Benchmark
+    public String extractXPathSelector() {
+        return SelfHealingSeleniumAspect.extractXPathSelectorFromBy(xpathBy);
+    }
+}
@@ -0,0 +1,75 @@
+package com.sdk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Jackson round trips of the SDK payloads, with readers/writers reused the way SelfHealingSdk does
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader fingerprintReader;
+    private ObjectReader healRequestReader;
+    private SelfHealingSdk.ElementFingerprint fingerprint;
+    private SelfHealingSdk.HealRequest healRequest;
+    private byte[] fingerprintJson;
+    private byte[] healRequestJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        writer = mapper.writer();
+        fingerprintReader = mapper.readerFor(SelfHealingSdk.ElementFingerprint.class);
+        healRequestReader = mapper.readerFor(SelfHealingSdk.HealRequest.class);
+
+        fingerprint = new SelfHealingSdk.ElementFingerprint();
+        fingerprint.id = UUID.randomUUID();
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("page_url", "https://example.com/login");
+        attributes.put("tag_name", "button");
+        attributes.put("id", "save");
+        attributes.put("class", "btn btn-primary");
+        attributes.put("text", "Save changes");
+        attributes.put("outer_html", "<button id=\"save\" class=\"btn btn-primary\">Save changes</button>");
+        fingerprint.attributes = attributes;
+        fingerprint.selectors = List.of("css: #save", "xpath: //button[@id='save']");
+
+        healRequest = new SelfHealingSdk.HealRequest();
+        healRequest.failed_selector = "By.id: save";
+        healRequest.context = Map.of("page_url", "https://example.com/login");
+
+        fingerprintJson = writer.writeValueAsBytes(fingerprint);
+        healRequestJson = writer.writeValueAsBytes(healRequest);
+    }
+
+    @Benchmark
+    public SelfHealingSdk.ElementFingerprint fingerprintRoundTrip() throws IOException {
+        return fingerprintReader.readValue(writer.writeValueAsBytes(fingerprint));
+    }
+
+    @Benchmark
+    public SelfHealingSdk.HealRequest healRequestRoundTrip() throws IOException {
+        return healRequestReader.readValue(writer.writeValueAsBytes(healRequest));
+    }
+
+    @Benchmark
+    public SelfHealingSdk.ElementFingerprint fingerprintRead() throws IOException {
+        return fingerprintReader.readValue(fingerprintJson);
+    }
+
+    @Benchmark
+    public SelfHealingSdk.HealRequest healRequestRead() throws IOException {
+        return healRequestReader.readValue(healRequestJson);
+    }
+}
@@ -0,0 +1,24 @@
+package com.sdk;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.util.Map;
+
+// Child JVM started by WeavingStartupBenchmark: loads the Selenium driver classes, does one advised
+// findElement and reports whether the aspect ran
+public class StartupProbe {
+
+    public static void main(String[] args) throws Exception {
+        Class.forName("org.openqa.selenium.chrome.ChromeDriver");
+        Class.forName("org.openqa.selenium.firefox.FirefoxDriver");
+        new ChromeOptions().addArguments("--headless=new");
+
+        FakeWebDriver driver = new FakeWebDriver("https://example.com/login");
+        driver.addElement("By.id: username", "input", "", Map.of("id", "username"));
+        driver.findElement(By.id("username"));
+
+        System.out.println("advised=" + (SdkMetrics.histogram(SdkStage.FIND_ELEMENT).getCount() > 0));
+        System.exit(0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.sdk;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Starts StartupProbe in fresh JVMs with each weaving mode and compares wall-clock start-up time.
+// Run through the startupBenchmark Gradle task, which passes the class paths and the weaver jar.
+public class WeavingStartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String classpath = System.getProperty("startup.classpath");
+        String wovenClasspath = System.getProperty("startup.wovenClasspath");
+        String weaver = System.getProperty("startup.weaver");
+        int runs = Integer.getInteger("startup.runs", 5);
+        String output = System.getProperty("startup.output");
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("none", List.of("-cp", classpath));
+        modes.put("ltw", List.of("-javaagent:" + weaver, "-cp", classpath));
+        modes.put("ltw-minimal", List.of("-javaagent:" + weaver,
+                "-Dorg.aspectj.weaver.loadtime.configuration=META-INF/aop-minimal.xml", "-cp", classpath));
+        modes.put("ctw", List.of("-cp", wovenClasspath));
+
+        StringBuilder json = new StringBuilder("[");
+        System.out.printf(Locale.ROOT, "%-12s %8s %10s %10s %10s%n", "mode", "advised", "min ms", "median ms", "max ms");
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            run(mode.getValue()); // warm the OS file cache
+            long[] millis = new long[runs];
+            boolean advised = false;
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                advised = run(mode.getValue());
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(millis);
+            long median = millis[runs / 2];
+            System.out.printf(Locale.ROOT, "%-12s %8s %10d %10d %10d%n", mode.getKey(), advised, millis[0], median, millis[runs - 1]);
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT, "{\"mode\":\"%s\",\"advised\":%s,\"runs\":%d,\"minMs\":%d,\"medianMs\":%d,\"maxMs\":%d}",
+                    mode.getKey(), advised, runs, millis[0], median, millis[runs - 1]));
+        }
+        json.append(']');
+
+        if (output != null) {
+            Path path = Path.of(output);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, json, StandardCharsets.UTF_8);
+            System.out.println("Results written to " + path);
+        }
+    }
+
+    // Runs one probe JVM, returns whether the aspect advised its findElement call
+    private static boolean run(List<String> jvmArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dselfhealing.baseUrl=http://127.0.0.1:9");
+        command.add("-Dselfhealing.metrics.summary=false");
+        command.add("-Dselfhealing.registration.shutdownFlushMs=0");
+        command.addAll(jvmArgs);
+        command.add(StartupProbe.class.getName());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectInput(ProcessBuilder.Redirect.from(new File(nullDevice()))).start();
+        boolean advised = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals("advised=true")) {
+                    advised = true;
+                }
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Probe JVM failed: " + command);
+        }
+        return advised;
+    }
+
+    private static String nullDevice() {
+        return File.separatorChar == '\\' ? "NUL" : "/dev/null";
+    }
+}
@@ -0,0 +1,172 @@
+package com.sdk;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Content addressing for registrations: attribute values of at least minChars (outer_html, long texts)
+// are replaced by "sha256:<hex>" references and sent once as blobs. Hashes the service confirmed are
+// remembered, so the same markup registered again from another page or run costs 71 characters.
+// Every value is capped at maxChars first.
+final class BlobDeduplicator {
+
+    static final String REF_PREFIX = "sha256:";
+
+    private final int minChars;
+    private final int maxChars;
+
+    // Hashes the service already stores, least recently used evicted first
+    private final Map<String, Boolean> known;
+
+    private final AtomicLong blobsReferenced = new AtomicLong();
+    private final AtomicLong blobsSent = new AtomicLong();
+    private final AtomicLong charsSaved = new AtomicLong();
+
+    // Fingerprints ready to send, with the content of every blob they reference
+    static final class Prepared {
+        final List<SelfHealingSdk.ElementFingerprint> fingerprints;
+        final Map<String, String> blobs;
+
+        Prepared(List<SelfHealingSdk.ElementFingerprint> fingerprints, Map<String, String> blobs) {
+            this.fingerprints = fingerprints;
+            this.blobs = blobs;
+        }
+    }
+
+    BlobDeduplicator() {
+        this(SelfHealingConfig.BLOB_MIN_CHARS, SelfHealingConfig.MAX_ATTRIBUTE_CHARS, SelfHealingConfig.KNOWN_BLOBS_MAX_ENTRIES);
+    }
+
+    BlobDeduplicator(int minChars, int maxChars, int maxKnown) {
+        this.minChars = minChars;
+        this.maxChars = maxChars;
+        this.known = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxKnown;
+            }
+        };
+    }
+
+    // Copies of the fingerprints (the originals are shared with the local index) with large values replaced
+    Prepared prepare(List<SelfHealingSdk.ElementFingerprint> fingerprints) {
+        List<SelfHealingSdk.ElementFingerprint> prepared = new ArrayList<>(fingerprints.size());
+        Map<String, String> blobs = new HashMap<>();
+        for (SelfHealingSdk.ElementFingerprint fingerprint : fingerprints) {
+            SelfHealingSdk.ElementFingerprint copy = copy(fingerprint);
+            if (copy.attributes != null) {
+                for (Map.Entry<String, String> attribute : copy.attributes.entrySet()) {
+                    String value = attribute.getValue();
+                    if (value == null || value.length() < minChars) {
+                        continue;
+                    }
+                    String hash = sha256(value);
+                    blobs.put(hash, value);
+                    attribute.setValue(REF_PREFIX + hash);
+                    if (copy.blob_attributes == null) {
+                        copy.blob_attributes = new ArrayList<>();
+                    }
+                    copy.blob_attributes.add(attribute.getKey());
+                    blobsReferenced.incrementAndGet();
+                }
+            }
+            prepared.add(copy);
+        }
+        return new Prepared(prepared, blobs);
+    }
+
+    // Copies with every value capped, for services without blob support
+    List<SelfHealingSdk.ElementFingerprint> capAll(List<SelfHealingSdk.ElementFingerprint> fingerprints) {
+        List<SelfHealingSdk.ElementFingerprint> capped = new ArrayList<>(fingerprints.size());
+        for (SelfHealingSdk.ElementFingerprint fingerprint : fingerprints) {
+            capped.add(copy(fingerprint));
+        }
+        return capped;
+    }
+
+    // Hashes of the blobs not known to be stored by the service
+    List<String> unknown(Collection<String> hashes) {
+        List<String> unknown = new ArrayList<>();
+        synchronized (known) {
+            for (String hash : hashes) {
+                if (known.get(hash) == null) {
+                    unknown.add(hash);
+                }
+            }
+        }
+        return unknown;
+    }
+
+    void markKnown(Collection<String> hashes) {
+        synchronized (known) {
+            for (String hash : hashes) {
+                known.put(hash, Boolean.TRUE);
+            }
+        }
+    }
+
+    // Accounting for one upload: blobs whose content was included, all others went as references only
+    void recordUpload(Prepared prepared, Map<String, String> sent) {
+        blobsSent.addAndGet(sent.size());
+        for (Map.Entry<String, String> blob : prepared.blobs.entrySet()) {
+            if (!sent.containsKey(blob.getKey())) {
+                charsSaved.addAndGet(blob.getValue().length() - REF_PREFIX.length() - 64);
+            }
+        }
+    }
+
+    private SelfHealingSdk.ElementFingerprint copy(SelfHealingSdk.ElementFingerprint fingerprint) {
+        SelfHealingSdk.ElementFingerprint copy = new SelfHealingSdk.ElementFingerprint();
+        copy.id = fingerprint.id;
+        copy.selectors = fingerprint.selectors;
+        if (fingerprint.attributes != null) {
+            copy.attributes = new HashMap<>(fingerprint.attributes);
+            copy.attributes.replaceAll((name, value) -> cap(value));
+        }
+        return copy;
+    }
+
+    String cap(String value) {
+        if (value == null || value.length() <= maxChars) {
+            return value;
+        }
+        int end = maxChars;
+        if (Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+
+    static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    long getBlobsReferencedCount() {
+        return blobsReferenced.get();
+    }
+
+    long getBlobsSentCount() {
+        return blobsSent.get();
+    }
+
+    // Characters not uploaded because the service already had the blob
+    long getCharsSaved() {
+        return charsSaved.get();
+    }
+}
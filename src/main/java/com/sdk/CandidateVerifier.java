@@ -0,0 +1,144 @@
+package com.sdk;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+// Checks every candidate of a heal response in one executeScript call: each selector is evaluated in the
+// page and reports its match count, whether the first match is visible, and the element itself.
+// The best-ranked candidate that matches exactly one visible element wins, so a wrong first guess no longer
+// costs another implicit wait.
+public final class CandidateVerifier {
+
+    // arguments[0]: list of [By type, value], e.g. ["cssSelector", ".btn"]; count is -1 for an invalid selector
+    static final String VERIFY_SCRIPT =
+            "var specs = arguments[0], out = [];"
+            + "function all(list) { return Array.prototype.slice.call(list); }"
+            + "function links(text, partial) { return all(document.querySelectorAll('a')).filter(function (a) {"
+            + " var t = (a.innerText || '').trim(); return partial ? t.indexOf(text) >= 0 : t === text; }); }"
+            + "function find(type, v) { switch (type) {"
+            + " case 'cssSelector': return all(document.querySelectorAll(v));"
+            + " case 'xpath': var r = document.evaluate(v, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), a = [];"
+            + "  for (var i = 0; i < r.snapshotLength; i++) { a.push(r.snapshotItem(i)); } return a;"
+            + " case 'id': return all(document.querySelectorAll('#' + CSS.escape(v)));"
+            + " case 'name': return all(document.querySelectorAll('[name=\"' + CSS.escape(v) + '\"]'));"
+            + " case 'className': return all(document.getElementsByClassName(v));"
+            + " case 'tagName': return all(document.getElementsByTagName(v));"
+            + " case 'linkText': return links(v, false);"
+            + " case 'partialLinkText': return links(v, true);"
+            + " default: return null; } }"
+            + "for (var i = 0; i < specs.length; i++) {"
+            + " var els; try { els = find(specs[i][0], specs[i][1]); } catch (e) { els = null; }"
+            + " if (els === null) { out.push({ count: -1, visible: false, element: null }); continue; }"
+            + " var el = els.length ? els[0] : null;"
+            + " out.push({ count: els.length, element: el,"
+            + "  visible: !!(el && (el.offsetWidth || el.offsetHeight || el.getClientRects().length)) }); }"
+            + "return out;";
+
+    private CandidateVerifier() {
+    }
+
+    // A candidate confirmed in the page
+    public static class VerifiedCandidate {
+        public final String selector;
+        public final By by;
+        public final WebElement element;
+        public final float confidence;
+
+        VerifiedCandidate(String selector, By by, WebElement element, float confidence) {
+            this.selector = selector;
+            this.by = by;
+            this.element = element;
+            this.confidence = confidence;
+        }
+    }
+
+    // Candidates of a response, best first, as By.toString() selectors. A response without a list
+    // is treated as a single candidate made of healed_selector.
+    static List<SelfHealingSdk.HealCandidate> candidates(SelfHealingSdk.HealResponse response, int max) {
+        List<SelfHealingSdk.HealCandidate> result = new ArrayList<>();
+        if (response == null) {
+            return result;
+        }
+        if (response.candidates != null) {
+            for (SelfHealingSdk.HealCandidate candidate : response.candidates) {
+                if (candidate != null && candidate.selector != null && !candidate.selector.isEmpty()) {
+                    result.add(candidate);
+                }
+            }
+            result.sort(Comparator.comparingDouble((SelfHealingSdk.HealCandidate c) -> c.confidence).reversed());
+        }
+        if (result.isEmpty() && response.healed_selector != null && !response.healed_selector.isEmpty()) {
+            SelfHealingSdk.HealCandidate single = new SelfHealingSdk.HealCandidate();
+            single.selector = response.healed_selector;
+            single.confidence = response.confidence;
+            result.add(single);
+        }
+        return result.size() > max ? new ArrayList<>(result.subList(0, max)) : result;
+    }
+
+    // Best unique, visible candidate, or null when none qualifies
+    public static VerifiedCandidate verify(WebDriver driver, List<SelfHealingSdk.HealCandidate> candidates) {
+        List<SelfHealingSdk.HealCandidate> usable = new ArrayList<>();
+        List<By> bys = new ArrayList<>();
+        List<List<String>> specs = new ArrayList<>();
+        for (SelfHealingSdk.HealCandidate candidate : candidates) {
+            String selector = LocalHealingEngine.toByString(candidate.selector);
+            By by = selector != null ? SelfHealingSeleniumAspect.parseSelectorString(selector) : null;
+            if (by == null) {
+                continue;
+            }
+            int colon = selector.indexOf(": ");
+            usable.add(candidate);
+            bys.add(by);
+            specs.add(List.of(selector.substring("By.".length(), colon), selector.substring(colon + 2)));
+        }
+        if (usable.isEmpty()) {
+            return null;
+        }
+
+        Object result = driver instanceof JavascriptExecutor
+                ? ((JavascriptExecutor) driver).executeScript(VERIFY_SCRIPT, specs) : null;
+        if (!(result instanceof List) || ((List<?>) result).size() != usable.size()) {
+            return verifySequentially(driver, usable, bys);
+        }
+        List<?> checks = (List<?>) result;
+        for (int i = 0; i < checks.size(); i++) {
+            if (!(checks.get(i) instanceof Map)) {
+                continue;
+            }
+            Map<?, ?> check = (Map<?, ?>) checks.get(i);
+            Object count = check.get("count");
+            if (count instanceof Number && ((Number) count).intValue() == 1
+                    && Boolean.TRUE.equals(check.get("visible")) && check.get("element") instanceof WebElement) {
+                SelfHealingSdk.HealCandidate candidate = usable.get(i);
+                return new VerifiedCandidate(LocalHealingEngine.toByString(candidate.selector), bys.get(i),
+                        (WebElement) check.get("element"), candidate.confidence);
+            }
+        }
+        return null;
+    }
+
+    // Drivers that cannot run scripts: plain lookups in rank order, without the uniqueness check
+    private static VerifiedCandidate verifySequentially(WebDriver driver, List<SelfHealingSdk.HealCandidate> candidates, List<By> bys) {
+        for (int i = 0; i < candidates.size(); i++) {
+            try {
+                WebElement element = driver.findElement(bys.get(i));
+                if (element.isDisplayed()) {
+                    SelfHealingSdk.HealCandidate candidate = candidates.get(i);
+                    return new VerifiedCandidate(LocalHealingEngine.toByString(candidate.selector), bys.get(i), element, candidate.confidence);
+                }
+            } catch (NoSuchElementException e) {
+                // next candidate
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,200 @@
+package com.sdk;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Circuit breaker in front of the healing API.
+//
+//   CLOSED    calls go through; failureThreshold consecutive failures open the circuit
+//   OPEN      calls fail at once with CircuitOpenException; a background probe checks the service
+//   HALF_OPEN the probe succeeded; one trial call at a time goes through, success closes, failure re-opens
+//
+// Only outages count as failures: I/O errors, timeouts, 5xx and 429. Any other HTTP answer proves the
+// service is up.
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // Probe of the service, e.g. GET /health; returning normally means the service is reachable
+    public interface Probe {
+        void check() throws IOException;
+    }
+
+    private static volatile ScheduledExecutorService probeScheduler;
+
+    private final int failureThreshold;
+    private final long probeIntervalMs;
+    private final Probe probe;
+
+    private volatile State state = State.CLOSED;
+    private final AtomicLong consecutiveFailures = new AtomicLong();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private ScheduledFuture<?> probeTask;
+    private volatile long openedAtNanos;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong callNanos = new AtomicLong();
+    private final AtomicLong openNanos = new AtomicLong();
+
+    public CircuitBreaker(Probe probe) {
+        this(SelfHealingConfig.BREAKER_FAILURE_THRESHOLD, SelfHealingConfig.BREAKER_PROBE_INTERVAL_MS, probe);
+    }
+
+    public CircuitBreaker(int failureThreshold, long probeIntervalMs, Probe probe) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.probeIntervalMs = Math.max(1, probeIntervalMs);
+        this.probe = probe;
+    }
+
+    // Fails fast while the circuit is open; in HALF_OPEN only the caller that gets the trial slot passes
+    public void acquire(String endpoint) throws CircuitOpenException {
+        State current = state;
+        if (current == State.CLOSED) {
+            return;
+        }
+        if (current == State.HALF_OPEN && trialInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        rejected.incrementAndGet();
+        throw new CircuitOpenException(endpoint);
+    }
+
+    public void onSuccess(long elapsedNanos) {
+        calls.incrementAndGet();
+        callNanos.addAndGet(elapsedNanos);
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            transition(State.CLOSED, "trial call succeeded");
+        }
+    }
+
+    // Records the outcome of a call that threw; returns false when the error does not count as an outage
+    public boolean onFailure(long elapsedNanos, IOException error) {
+        if (!isOutage(error)) {
+            onSuccess(elapsedNanos);
+            return false;
+        }
+        calls.incrementAndGet();
+        failures.incrementAndGet();
+        callNanos.addAndGet(elapsedNanos);
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN, "trial call failed: " + error.getMessage());
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold && state == State.CLOSED) {
+            transition(State.OPEN, consecutiveFailures.get() + " consecutive failures, last: " + error.getMessage());
+        }
+        return true;
+    }
+
+    static boolean isOutage(IOException error) {
+        if (error instanceof CircuitOpenException) {
+            return false;
+        }
+        if (error instanceof SelfHealingHttpException) {
+            int status = ((SelfHealingHttpException) error).getStatusCode();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    private synchronized void transition(State next, String reason) {
+        State previous = state;
+        if (previous == next) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (previous == State.OPEN) {
+            openNanos.addAndGet(now - openedAtNanos);
+        }
+        state = next;
+        trialInFlight.set(false);
+        if (next == State.OPEN) {
+            opened.incrementAndGet();
+            openedAtNanos = now;
+            probeTask = scheduler().scheduleWithFixedDelay(this::runProbe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+        } else if (probeTask != null) {
+            probeTask.cancel(false);
+            probeTask = null;
+        }
+        if (next == State.CLOSED) {
+            consecutiveFailures.set(0);
+        }
+        System.err.println("[CircuitBreaker] " + previous + " -> " + next + " (" + reason + ")");
+    }
+
+    private void runProbe() {
+        if (state != State.OPEN) {
+            return;
+        }
+        try {
+            probe.check();
+            transition(State.HALF_OPEN, "probe succeeded");
+        } catch (SelfHealingHttpException e) {
+            if (!isOutage(e)) {
+                // No health endpoint, but the service answered
+                transition(State.HALF_OPEN, "probe answered " + e.getStatusCode());
+            }
+        } catch (Exception e) {
+            // Still down, the next probe follows after the interval
+        }
+    }
+
+    private static ScheduledExecutorService scheduler() {
+        ScheduledExecutorService scheduler = probeScheduler;
+        if (scheduler == null) {
+            synchronized (CircuitBreaker.class) {
+                scheduler = probeScheduler;
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(SdkExecutors.threadFactory("self-healing-breaker-probe"));
+                    probeScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getOpenedCount() {
+        return opened.get();
+    }
+
+    // Time spent waiting on the service, over all calls that were let through
+    public long getCallNanos() {
+        return callNanos.get();
+    }
+
+    // Time spent with the circuit open, including the current open period
+    public long getOpenNanos() {
+        long total = openNanos.get();
+        return state == State.OPEN ? total + (System.nanoTime() - openedAtNanos) : total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "state=%s calls=%d failures=%d rejected=%d opened=%d callMs=%.1f openMs=%.1f",
+                state, calls.get(), failures.get(), rejected.get(), opened.get(), callNanos.get() / 1e6, getOpenNanos() / 1e6);
+    }
+}
@@ -0,0 +1,12 @@
+package com.sdk;
+
+import java.io.IOException;
+
+// Thrown instead of calling the healing API while its circuit breaker is open
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String endpoint) {
+        super("Healing service unavailable (circuit open), not calling " + endpoint);
+    }
+}
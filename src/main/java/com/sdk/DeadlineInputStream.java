@@ -0,0 +1,162 @@
+package com.sdk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Response body of JdkHttpTransport as a stream that is read while it arrives: one chunk of the body is
+// requested at a time, so memory stays at one chunk however large the body is. Waiting for the next chunk
+// is bounded by the exchange deadline, past it the subscription is cancelled (aborting the exchange)
+// and the read fails with an HttpTimeoutException.
+final class DeadlineInputStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+
+    private static final Object END = new Object();
+
+    private final long deadlineNanos;
+    private final Supplier<HttpTimeoutException> timeout;
+    // Next chunk, or END, or the Throwable the body failed with; at most one chunk since one is requested at a time
+    private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean closed;
+
+    // Reader side, single threaded like any InputStream
+    private Iterator<ByteBuffer> chunk;
+    private ByteBuffer buffer;
+    private boolean done;
+
+    DeadlineInputStream(long deadlineNanos, Supplier<HttpTimeoutException> timeout) {
+        this.deadlineNanos = deadlineNanos;
+        this.timeout = timeout;
+    }
+
+    // Available with the response headers, the body is read through it afterwards
+    @Override
+    public CompletionStage<InputStream> getBody() {
+        return CompletableFuture.completedFuture(this);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (closed) {
+            subscription.cancel();
+        } else {
+            subscription.request(1);
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        signals.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        signals.add(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        signals.add(END);
+    }
+
+    @Override
+    public int read() throws IOException {
+        ByteBuffer current = current();
+        return current == null ? -1 : current.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        ByteBuffer current = current();
+        if (current == null) {
+            return -1;
+        }
+        int n = Math.min(len, current.remaining());
+        current.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        ByteBuffer current = buffer;
+        return current == null ? 0 : current.remaining();
+    }
+
+    // Buffer with bytes left to read, null at the end of the body
+    @SuppressWarnings("unchecked")
+    private ByteBuffer current() throws IOException {
+        while (buffer == null || !buffer.hasRemaining()) {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (chunk != null && chunk.hasNext()) {
+                buffer = chunk.next();
+                continue;
+            }
+            if (done) {
+                return null;
+            }
+            if (chunk != null) {
+                // Chunk fully read: only now ask for the next one
+                chunk = null;
+                subscription.request(1);
+            }
+            Object signal;
+            try {
+                long remaining = deadlineNanos - System.nanoTime();
+                signal = remaining > 0 ? signals.poll(remaining, TimeUnit.NANOSECONDS) : signals.poll();
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading the response body");
+            }
+            if (signal == null) {
+                close();
+                throw timeout.get();
+            }
+            if (signal == END) {
+                done = true;
+                return null;
+            }
+            if (signal instanceof Throwable error) {
+                done = true;
+                throw error instanceof IOException io ? io : new IOException(error);
+            }
+            chunk = ((List<ByteBuffer>) signal).iterator();
+        }
+        return buffer;
+    }
+
+    // Cancels the rest of the body, the connection is not left reading it
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Flow.Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+        signals.clear();
+        buffer = null;
+        chunk = null;
+    }
+}
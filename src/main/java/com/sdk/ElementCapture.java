@@ -0,0 +1,60 @@
+package com.sdk;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Captures everything a fingerprint needs in a single executeScript round trip
+// (instead of executeScript + getCurrentUrl + getTagName + getText + getAttribute per element)
+public final class ElementCapture {
+
+    private ElementCapture() {
+    }
+
+    static final String CAPTURE_SCRIPT =
+            "var el = arguments[0], attrs = {};"
+            + "for (var i = 0; i < el.attributes.length; i++) { attrs[el.attributes[i].name] = el.attributes[i].value; }"
+            + "var url; try { url = window.top.location.href; } catch (e) { url = window.location.href; }"
+            + "var r = el.getBoundingClientRect();"
+            + "return { attributes: attrs, tag_name: el.tagName.toLowerCase(), text: (el.innerText || '').trim(),"
+            + " page_url: url, outer_html: el.outerHTML,"
+            + " bounding_box: Math.round(r.left) + ',' + Math.round(r.top) + ',' + Math.round(r.width) + ',' + Math.round(r.height) };";
+
+    // Fingerprint attributes: the element's own attributes plus page_url, tag_name, text, outer_html and bounding_box
+    public static Map<String, String> capture(WebDriver driver, WebElement element) {
+        Map<String, String> attributes = new HashMap<>();
+        Object result = null;
+        if (driver instanceof JavascriptExecutor) {
+            result = ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT, element);
+        }
+        if (result instanceof Map) {
+            Map<?, ?> captured = (Map<?, ?>) result;
+            if (captured.get("attributes") instanceof Map) {
+                for (Map.Entry<?, ?> attribute : ((Map<?, ?>) captured.get("attributes")).entrySet()) {
+                    attributes.put(String.valueOf(attribute.getKey()), stringValue(attribute.getValue()));
+                }
+            }
+            attributes.put("page_url", stringValue(captured.get("page_url")));
+            attributes.put("tag_name", stringValue(captured.get("tag_name")));
+            attributes.put("text", stringValue(captured.get("text")));
+            attributes.put("outer_html", stringValue(captured.get("outer_html")));
+            attributes.put("bounding_box", stringValue(captured.get("bounding_box")));
+            return attributes;
+        }
+
+        // Driver without script support, fall back to one call per property
+        String text = element.getText();
+        attributes.put("page_url", driver.getCurrentUrl());
+        attributes.put("tag_name", element.getTagName());
+        attributes.put("text", text != null ? text : "");
+        attributes.put("outer_html", stringValue(element.getAttribute("outerHTML")));
+        return attributes;
+    }
+
+    private static String stringValue(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
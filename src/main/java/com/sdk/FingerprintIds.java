@@ -0,0 +1,33 @@
+package com.sdk;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Time-ordered fingerprint IDs in the UUID version 7 layout (RFC 9562): 48 bit Unix milliseconds,
+// then 74 random bits. The random part comes from ThreadLocalRandom, so parallel test threads do not
+// contend on the shared SecureRandom behind UUID.randomUUID(). IDs sort by creation time, which keeps
+// index inserts on the service side append-mostly.
+final class FingerprintIds {
+
+    private FingerprintIds() {
+    }
+
+    static UUID next() {
+        return next(System.currentTimeMillis());
+    }
+
+    static UUID next(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (epochMillis & 0xffff_ffff_ffffL) << 16
+                | 0x7000L                          // version 7
+                | (random.nextInt() & 0x0fffL);    // rand_a
+        long lsb = (random.nextLong() & 0x3fff_ffff_ffff_ffffL)
+                | 0x8000_0000_0000_0000L;          // IETF variant
+        return new UUID(msb, lsb);
+    }
+
+    // Creation time encoded in a version 7 ID
+    static long timestamp(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,188 @@
+package com.sdk;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Lazily walks /all-fingerprints one fingerprint at a time, following server cursors.
+// Accepts both the plain array response and the paginated {"fingerprints": [...], "next_cursor": "..."} form,
+// so memory use is one fingerprint (plus parser buffers) regardless of how big the store is, provided the
+// transport streams the body as JdkHttpTransport does.
+public class FingerprintIterator implements Iterator<SelfHealingSdk.ElementFingerprint>, Closeable {
+
+    private final SelfHealingTransport transport;
+    private final JsonFactory jsonFactory;
+    private final ObjectReader fingerprintReader;
+    private final String pageUrl;
+    private final String normalizedPageUrl;
+    private final int pageSize;
+
+    private InputStream in;
+    private JsonParser parser;
+    private String nextCursor;
+    // Cursors already requested, a server handing one out again would otherwise be paged forever
+    private final Set<String> seenCursors = new HashSet<>();
+    private boolean lastPage;
+    private SelfHealingSdk.ElementFingerprint next;
+    private boolean closed;
+
+    FingerprintIterator(SelfHealingTransport transport, JsonFactory jsonFactory, ObjectReader fingerprintReader,
+                        String pageUrl, int pageSize) {
+        this.transport = transport;
+        this.jsonFactory = jsonFactory;
+        this.fingerprintReader = fingerprintReader;
+        this.pageUrl = pageUrl;
+        this.normalizedPageUrl = pageUrl != null ? PageUrls.normalize(pageUrl) : null;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !closed) {
+            try {
+                next = advance();
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            if (next == null) {
+                close();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public SelfHealingSdk.ElementFingerprint next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SelfHealingSdk.ElementFingerprint result = next;
+        next = null;
+        return result;
+    }
+
+    private SelfHealingSdk.ElementFingerprint advance() throws IOException {
+        while (true) {
+            if (parser == null) {
+                if (lastPage) {
+                    return null;
+                }
+                openPage();
+            }
+            SelfHealingSdk.ElementFingerprint fingerprint = readNextInPage();
+            if (fingerprint == null) {
+                closePage();
+                lastPage = !hasNewCursor();
+                continue;
+            }
+            // The server may ignore the page_url filter, check it here as well
+            if (normalizedPageUrl == null || (fingerprint.attributes != null
+                    && normalizedPageUrl.equals(PageUrls.normalize(fingerprint.attributes.get("page_url"))))) {
+                return fingerprint;
+            }
+        }
+    }
+
+    private void openPage() throws IOException {
+        StringBuilder endpoint = new StringBuilder("/all-fingerprints?limit=").append(pageSize);
+        if (pageUrl != null) {
+            endpoint.append("&page_url=").append(URLEncoder.encode(pageUrl, StandardCharsets.UTF_8));
+        }
+        if (nextCursor != null) {
+            endpoint.append("&cursor=").append(URLEncoder.encode(nextCursor, StandardCharsets.UTF_8));
+        }
+        nextCursor = null;
+        in = transport.get(endpoint.toString());
+        parser = jsonFactory.createParser(in);
+
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.START_OBJECT) {
+            // Paginated envelope: move to the start of the "fingerprints" array, remembering the cursor on the way
+            if (!seekFingerprintsArray()) {
+                closePage();
+                lastPage = !hasNewCursor();
+            }
+        } else if (first != JsonToken.START_ARRAY) {
+            closePage();
+            lastPage = true;
+        } else {
+            // Plain array, no pagination
+            lastPage = true;
+        }
+    }
+
+    private boolean hasNewCursor() {
+        if (nextCursor == null || nextCursor.isEmpty()) {
+            return false;
+        }
+        if (!seenCursors.add(nextCursor)) {
+            System.err.println("[FingerprintIterator] Server returned cursor " + nextCursor + " again, stopping");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean seekFingerprintsArray() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("fingerprints".equals(field) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            if ("next_cursor".equals(field)) {
+                nextCursor = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    private SelfHealingSdk.ElementFingerprint readNextInPage() throws IOException {
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            return fingerprintReader.readValue(parser);
+        }
+        // End of array: a cursor may still follow in the envelope
+        if (parser.currentToken() == JsonToken.END_ARRAY && parser.getParsingContext().inObject()) {
+            seekFingerprintsArray();
+        }
+        return null;
+    }
+
+    private void closePage() throws IOException {
+        try {
+            if (parser != null) {
+                parser.close();
+            }
+        } finally {
+            parser = null;
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            closePage();
+        } catch (IOException e) {
+            // Nothing left to do with a stream we are abandoning
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.sdk;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded queue of fingerprints drained by a background worker, so findElement never waits on the healing API.
+// The worker coalesces registrations into batches (size / linger), backs off when the service fails,
+// and flushes whatever is left on JVM shutdown. A page capture is queued as one unit and always goes
+// out in a single request, however many elements it holds.
+//
+// Delivery is at least once: a batch whose response was lost (timeout, reset) is sent again by the retry.
+// Every fingerprint keeps its id across attempts, so the service can treat a repeated id as the same
+// registration. Registering one by one, fingerprints the service accepted are not part of the retry.
+public class FingerprintRegistrationQueue {
+
+    private static final long MAX_BACKOFF_MS = 30_000L;
+    // Longest wait for the next unit while lingering, so close() never waits out a long linger
+    private static final long CLOSE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final SelfHealingSdk sdk;
+    // Units of registration: a single fingerprint, or all fingerprints of a page capture
+    private final BlockingQueue<Unit> queue;
+    private final int batchSize;
+    private final long lingerMs;
+    private final int maxRetries;
+    private final long shutdownFlushMs;
+    private final Thread worker;
+    // Removed again by close(), so a closed queue (and its SDK) is not kept reachable until JVM exit
+    private final Thread shutdownHook;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    private static final class Unit {
+        final List<SelfHealingSdk.ElementFingerprint> fingerprints;
+        // Run by the worker once the service accepted the unit, may be null
+        final Runnable onSent;
+
+        Unit(List<SelfHealingSdk.ElementFingerprint> fingerprints, Runnable onSent) {
+            this.fingerprints = fingerprints;
+            this.onSent = onSent;
+        }
+    }
+
+    // Falls back to single registrations when the service has no batch endpoint
+    private volatile boolean batchEndpointSupported = true;
+    private volatile boolean closed;
+
+    public FingerprintRegistrationQueue(SelfHealingSdk sdk) {
+        this(sdk, SelfHealingConfig.REGISTRATION_QUEUE_CAPACITY, SelfHealingConfig.REGISTRATION_BATCH_SIZE,
+                SelfHealingConfig.REGISTRATION_LINGER_MS, SelfHealingConfig.REGISTRATION_MAX_RETRIES,
+                SelfHealingConfig.REGISTRATION_SHUTDOWN_FLUSH_MS);
+    }
+
+    public FingerprintRegistrationQueue(SelfHealingSdk sdk, int capacity, int batchSize, long lingerMs,
+                                        int maxRetries, long shutdownFlushMs) {
+        this.sdk = sdk;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerMs = Math.max(0, lingerMs);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.shutdownFlushMs = shutdownFlushMs;
+
+        this.worker = SdkExecutors.start("self-healing-registration", this::drainLoop);
+        this.shutdownHook = new Thread(this::close, "self-healing-registration-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    // Never blocks: when the queue is full the fingerprint is dropped and counted
+    public boolean submit(SelfHealingSdk.ElementFingerprint fingerprint) {
+        return submit(fingerprint, null);
+    }
+
+    // onSent runs on the worker thread after the service accepted the registration, never when it is dropped
+    public boolean submit(SelfHealingSdk.ElementFingerprint fingerprint, Runnable onSent) {
+        return offer(new Unit(List.of(fingerprint), onSent));
+    }
+
+    // Fingerprints sent together in one bulk registration (page capture), dropped together when the queue is full
+    public boolean submitAll(List<SelfHealingSdk.ElementFingerprint> fingerprints) {
+        return submitAll(fingerprints, null);
+    }
+
+    public boolean submitAll(List<SelfHealingSdk.ElementFingerprint> fingerprints, Runnable onSent) {
+        return fingerprints.isEmpty() || offer(new Unit(List.copyOf(fingerprints), onSent));
+    }
+
+    private boolean offer(Unit unit) {
+        if (closed || !queue.offer(unit)) {
+            dropped.addAndGet(unit.fingerprints.size());
+            return false;
+        }
+        enqueued.addAndGet(unit.fingerprints.size());
+        return true;
+    }
+
+    // Stops the worker and sends what is still queued, bounded by the shutdown flush timeout
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM already shutting down, the hook runs close() again as a no-op
+            }
+        }
+        if (shutdownFlushMs > 0) {
+            try {
+                worker.join(shutdownFlushMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (worker.isAlive()) {
+            worker.interrupt();
+            System.err.println("[FingerprintRegistrationQueue] Shutdown flush timed out, " + queue.size() + " registrations not sent");
+        }
+    }
+
+    private void drainLoop() {
+        long backoffMs = 0;
+        List<SelfHealingSdk.ElementFingerprint> batch = new ArrayList<>(batchSize);
+        List<Runnable> callbacks = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty() && !collectBatch(batch, callbacks)) {
+                    continue;
+                }
+                int attempts = 0;
+                while (true) {
+                    SelfHealingStageEvent span = SdkMetrics.start(SdkStage.REGISTER);
+                    int size = batch.size();
+                    try {
+                        send(batch);
+                        SdkMetrics.end(span, null, null, "sent " + size);
+                        backoffMs = 0;
+                        runCallbacks(callbacks);
+                        break;
+                    } catch (CircuitOpenException e) {
+                        // Service known to be down: wait for the breaker to close without using up retries
+                        SdkMetrics.end(span, null, null, "circuit_open");
+                        if (closed) {
+                            dropped.addAndGet(batch.size());
+                            break;
+                        }
+                        Thread.sleep(Math.min(Math.max(lingerMs, SelfHealingConfig.BREAKER_PROBE_INTERVAL_MS), MAX_BACKOFF_MS));
+                    } catch (Exception e) {
+                        SdkMetrics.end(span, null, null, "failed");
+                        failedBatches.incrementAndGet();
+                        if (closed || ++attempts > maxRetries) {
+                            dropped.addAndGet(batch.size());
+                            System.err.println("[FingerprintRegistrationQueue] Dropping " + batch.size() + " registrations: " + e.getMessage());
+                            break;
+                        }
+                        backoffMs = backoffMs == 0 ? Math.max(100, lingerMs) : Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                        Thread.sleep(backoffMs);
+                    }
+                }
+                batch.clear();
+                callbacks.clear();
+            } catch (InterruptedException e) {
+                if (!closed) {
+                    continue;
+                }
+                return;
+            }
+        }
+    }
+
+    // Waits for the first unit, then lingers up to lingerMs to fill the batch. Units are never split,
+    // so a page capture larger than batchSize is sent as one oversized batch.
+    private boolean collectBatch(List<SelfHealingSdk.ElementFingerprint> batch, List<Runnable> callbacks) throws InterruptedException {
+        Unit first = queue.poll(closed ? 0 : 100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        add(first, batch, callbacks);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            Unit next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (closed || remaining <= 0) {
+                    break;
+                }
+                next = queue.poll(Math.min(remaining, CLOSE_CHECK_NANOS), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    continue;
+                }
+            }
+            add(next, batch, callbacks);
+        }
+        return true;
+    }
+
+    private static void add(Unit unit, List<SelfHealingSdk.ElementFingerprint> batch, List<Runnable> callbacks) {
+        batch.addAll(unit.fingerprints);
+        if (unit.onSent != null) {
+            callbacks.add(unit.onSent);
+        }
+    }
+
+    private static void runCallbacks(List<Runnable> callbacks) {
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                System.err.println("[FingerprintRegistrationQueue] Registration callback failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Accepted fingerprints are removed from the batch, what is left on an exception was not sent
+    private void send(List<SelfHealingSdk.ElementFingerprint> batch) throws Exception {
+        if (batchEndpointSupported && batch.size() > 1) {
+            try {
+                sdk.registerFingerprints(new ArrayList<>(batch));
+                sent.addAndGet(batch.size());
+                batch.clear();
+                return;
+            } catch (SelfHealingHttpException e) {
+                if (e.getStatusCode() != 404 && e.getStatusCode() != 405) {
+                    throw e;
+                }
+                System.err.println("[FingerprintRegistrationQueue] Batch endpoint not available, registering one by one");
+                batchEndpointSupported = false;
+            }
+        }
+        Iterator<SelfHealingSdk.ElementFingerprint> it = batch.iterator();
+        while (it.hasNext()) {
+            SelfHealingSdk.RegisterRequest request = new SelfHealingSdk.RegisterRequest();
+            request.fingerprint = it.next();
+            sdk.registerFingerprint(request);
+            it.remove();
+            sent.incrementAndGet();
+        }
+    }
+
+    // Queued units, a page capture counts once
+    public int pending() {
+        return queue.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatches.get();
+    }
+}
@@ -0,0 +1,190 @@
+package com.sdk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded, approximately LRU cache of heal results keyed on failed selector + normalized page URL.
+// Unhealable selectors are cached too (with a shorter TTL) so a known-broken locator fails fast.
+//
+// The page part of the key is PageUrls.normalize(): query string and non-route fragment are dropped, so
+// "/orders?tab=1" and "/orders?tab=2" share their heal results. A query that selects another page layout
+// gets the other layout's healed selector first; it is verified on the page before use like any heal.
+//
+// Lookups are lock-free (ConcurrentHashMap plus a per-entry access time) so parallel sessions do not contend
+// on it. When the cache grows past maxEntries, one thread at a time drops the least recently used entries,
+// a sixteenth of the capacity at once so the sort is paid rarely.
+public class HealResultCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+        final SelfHealingSdk.HealResponse response;
+        final long expiresAt;
+        // System.nanoTime() of the last get or put, plain volatile write: racing readers may lose an update
+        volatile long lastAccess;
+
+        Entry(SelfHealingSdk.HealResponse response, long now, long expiresAt) {
+            this.response = response;
+            this.lastAccess = now;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isNegative() {
+            return HealResultCache.isNegative(response);
+        }
+    }
+
+    // Neither a healed selector nor candidates: the selector cannot be healed on this page
+    private static boolean isNegative(SelfHealingSdk.HealResponse response) {
+        return response == null || ((response.healed_selector == null || response.healed_selector.isEmpty())
+                && (response.candidates == null || response.candidates.isEmpty()));
+    }
+
+    public HealResultCache() {
+        this(SelfHealingConfig.HEAL_CACHE_MAX_ENTRIES, SelfHealingConfig.HEAL_CACHE_TTL_MS,
+                SelfHealingConfig.HEAL_CACHE_NEGATIVE_TTL_MS);
+    }
+
+    public HealResultCache(int maxEntries, long ttlMs, long negativeTtlMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+    }
+
+    public static String key(String failedSelector, String pageUrl) {
+        return PageUrls.normalize(pageUrl) + '\n' + failedSelector;
+    }
+
+    public static String key(SelfHealingSdk.HealRequest request) {
+        String pageUrl = request.context != null ? request.context.get("page_url") : null;
+        return key(request.failed_selector, pageUrl);
+    }
+
+    // Returns the cached response, a response with no healed_selector for a cached negative, or null on a miss
+    public SelfHealingSdk.HealResponse get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long now = System.nanoTime();
+            if (now - entry.expiresAt > 0) {
+                if (entries.remove(key, entry)) {
+                    evictions.incrementAndGet();
+                }
+                entry = null;
+            } else {
+                entry.lastAccess = now;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isNegative()) {
+            negativeHits.incrementAndGet();
+            return entry.response != null ? entry.response : new SelfHealingSdk.HealResponse();
+        }
+        hits.incrementAndGet();
+        return entry.response;
+    }
+
+    public void put(String key, SelfHealingSdk.HealResponse response) {
+        long ttl = isNegative(response) ? negativeTtlNanos : ttlNanos;
+        if (ttl <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.put(key, new Entry(response, now, now + ttl));
+        if (entries.size() > maxEntries) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        if (!evicting.compareAndSet(false, true)) {
+            // Another thread is at it, the cache is briefly a little over capacity
+            return;
+        }
+        try {
+            // Access times are read once: readers keep touching entries while this sorts
+            List<Candidate> all = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> all.add(new Candidate(key, entry, entry.lastAccess)));
+            int excess = all.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            all.sort(Comparator.comparingLong(Candidate::lastAccess));
+            int evict = Math.min(all.size(), Math.max(excess, maxEntries / 16));
+            for (int i = 0; i < evict; i++) {
+                Candidate oldest = all.get(i);
+                if (entries.remove(oldest.key(), oldest.entry())) {
+                    evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Candidate(String key, Entry entry, long lastAccess) {
+    }
+
+    // Remember that a selector cannot be healed on this page (e.g. the healed selector did not match)
+    public void putNegative(String key) {
+        put(key, null);
+    }
+
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    // Drops expired entries, cheap enough to call from time to time
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (now - entry.getValue().expiresAt > 0 && entries.remove(entry.getKey(), entry.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "HealResultCache{size=" + size() + ", hits=" + hits.get() + ", negativeHits=" + negativeHits.get()
+                + ", misses=" + misses.get() + ", evictions=" + evictions.get() + "}";
+    }
+}
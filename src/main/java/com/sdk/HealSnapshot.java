@@ -0,0 +1,351 @@
+package com.sdk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Heal decisions of a recorded run, answered locally by later runs without calling the healing service.
+//
+// Record mode (-Dselfhealing.snapshot.mode=record) keeps every heal decision of the run and writes them at
+// JVM shutdown, over the decisions already in the file (a fork or an earlier run may have recorded others).
+// Replay mode (replay) memory-maps the file and answers heal requests by binary search; keys it does not
+// hold are reported and fail the heal, they are never sent to the service.
+//
+// Layout: 16 byte header (magic, version, entry count), the index as 16 byte entries (key hash, data offset,
+// data length) sorted by hash, then the data of each entry: key (normalized page URL + '\n' + failed
+// selector) and candidates (selector, confidence) best first. Strings are an int length and UTF-8 bytes.
+public class HealSnapshot {
+
+    public enum Mode { RECORD, REPLAY }
+
+    private static final int MAGIC = 0x53485331; // "SHS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int INDEX_ENTRY_SIZE = 16;
+    private static final int MAX_UNKNOWN_KEYS = 1_000;
+
+    private static volatile HealSnapshot configured;
+    private static volatile boolean configuredLoaded;
+
+    private final Mode mode;
+    private final Path path;
+
+    // Record mode: key -> candidates decided in this run, empty when the selector was unhealable
+    private final Map<String, List<SelfHealingSdk.HealCandidate>> recorded = new ConcurrentHashMap<>();
+
+    // Replay mode: the mapped file, null for a missing snapshot (every key unknown)
+    private final ByteBuffer buffer;
+    private final int count;
+    private final Set<String> unknownKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private HealSnapshot(Mode mode, Path path, ByteBuffer buffer, int count) {
+        this.mode = mode;
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    public static HealSnapshot record(Path path) {
+        return new HealSnapshot(Mode.RECORD, path, null, 0);
+    }
+
+    public static HealSnapshot replay(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Heal snapshot larger than 2 GB: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new HealSnapshot(Mode.REPLAY, path, buffer, validate(buffer, path));
+        }
+    }
+
+    // The snapshot configured with -Dselfhealing.snapshot.mode / .path, shared by every client of the JVM,
+    // or null when the mode is not set. Written (record) or reported (replay) at JVM shutdown.
+    public static HealSnapshot configured() {
+        if (!configuredLoaded) {
+            synchronized (HealSnapshot.class) {
+                if (!configuredLoaded) {
+                    configured = fromConfig();
+                    configuredLoaded = true;
+                    if (configured != null) {
+                        Runtime.getRuntime().addShutdownHook(new Thread(configured::onShutdown, "self-healing-snapshot"));
+                    }
+                }
+            }
+        }
+        return configured;
+    }
+
+    private static HealSnapshot fromConfig() {
+        String mode = SelfHealingConfig.SNAPSHOT_MODE;
+        Path path = Path.of(SelfHealingConfig.SNAPSHOT_PATH);
+        if ("record".equalsIgnoreCase(mode)) {
+            return record(path);
+        }
+        if (!"replay".equalsIgnoreCase(mode)) {
+            if (!"off".equalsIgnoreCase(mode) && !mode.isEmpty()) {
+                System.err.println("[HealSnapshot] Unknown selfhealing.snapshot.mode '" + mode + "', expected record or replay");
+            }
+            return null;
+        }
+        try {
+            return replay(path);
+        } catch (IOException e) {
+            // Still offline: a run without its snapshot reports every heal instead of calling the service
+            System.err.println("[HealSnapshot] Cannot read " + path + ", no heal will be answered: " + e.getMessage());
+            return new HealSnapshot(Mode.REPLAY, path, null, 0);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isReplay() {
+        return mode == Mode.REPLAY;
+    }
+
+    // Record mode: the service's decision for the request
+    public void record(SelfHealingSdk.HealRequest request, SelfHealingSdk.HealResponse response) {
+        if (mode == Mode.RECORD) {
+            recorded.put(HealResultCache.key(request), CandidateVerifier.candidates(response, SelfHealingConfig.HEAL_MAX_CANDIDATES));
+        }
+    }
+
+    // Record mode: a decision taken without the service (local healing engine)
+    public void record(String failedSelector, String pageUrl, String healedSelector, float confidence) {
+        if (mode == Mode.RECORD) {
+            SelfHealingSdk.HealCandidate candidate = new SelfHealingSdk.HealCandidate();
+            candidate.selector = healedSelector;
+            candidate.confidence = confidence;
+            recorded.put(HealResultCache.key(failedSelector, pageUrl), List.of(candidate));
+        }
+    }
+
+    // Replay mode: the recorded decision, a response without healed selector for a recorded unhealable one
+    public SelfHealingSdk.HealResponse replay(SelfHealingSdk.HealRequest request) throws HealSnapshotMissException {
+        String key = HealResultCache.key(request);
+        List<SelfHealingSdk.HealCandidate> candidates = lookup(key);
+        if (candidates == null) {
+            misses.incrementAndGet();
+            if (unknownKeys.size() < MAX_UNKNOWN_KEYS && unknownKeys.add(key)) {
+                System.err.println("[HealSnapshot] Not in snapshot, not healed: " + request.failed_selector
+                        + " on " + PageUrls.normalize(request.context != null ? request.context.get("page_url") : null));
+            }
+            throw new HealSnapshotMissException(request.failed_selector);
+        }
+        hits.incrementAndGet();
+        SelfHealingSdk.HealResponse response = new SelfHealingSdk.HealResponse();
+        response.candidates = candidates;
+        response.details = "heal snapshot";
+        if (!candidates.isEmpty()) {
+            response.healed_selector = candidates.get(0).selector;
+            response.confidence = candidates.get(0).confidence;
+        }
+        return response;
+    }
+
+    // Candidates stored for the key, null when the snapshot does not hold it
+    List<SelfHealingSdk.HealCandidate> lookup(String key) {
+        if (buffer == null || count == 0) {
+            return null;
+        }
+        long hash = RegistrationJournal.hash(key);
+        // First index entry with a hash >= the key's
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (hashAt(mid) < hash) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        // Equal hashes are adjacent, the stored key tells them apart
+        for (int i = lo; i < count && hashAt(i) == hash; i++) {
+            int offset = buffer.getInt(HEADER_SIZE + i * INDEX_ENTRY_SIZE + 8);
+            if (buffer.getInt(offset) == keyBytes.length && Arrays.equals(bytesAt(offset + 4, keyBytes.length), keyBytes)) {
+                return candidatesAt(offset + 4 + keyBytes.length);
+            }
+        }
+        return null;
+    }
+
+    // Record mode: writes the decisions of this run over those already in the file
+    public synchronized void write() throws IOException {
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        Path lockPath = path.resolveSibling(path.getFileName() + ".lock");
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = lockChannel.lock();
+            try {
+                Map<String, List<SelfHealingSdk.HealCandidate>> decisions = new HashMap<>();
+                if (Files.exists(path)) {
+                    try {
+                        decisions.putAll(replay(path).entries());
+                    } catch (IOException e) {
+                        System.err.println("[HealSnapshot] Replacing unreadable snapshot " + path + ": " + e.getMessage());
+                    }
+                }
+                decisions.putAll(recorded);
+                Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+                Files.write(temp, encode(decisions));
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    // Every key and its candidates, in index order
+    Map<String, List<SelfHealingSdk.HealCandidate>> entries() {
+        Map<String, List<SelfHealingSdk.HealCandidate>> entries = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int offset = buffer.getInt(HEADER_SIZE + i * INDEX_ENTRY_SIZE + 8);
+            int keyLength = buffer.getInt(offset);
+            String key = new String(bytesAt(offset + 4, keyLength), StandardCharsets.UTF_8);
+            entries.put(key, candidatesAt(offset + 4 + keyLength));
+        }
+        return entries;
+    }
+
+    static byte[] encode(Map<String, List<SelfHealingSdk.HealCandidate>> decisions) throws IOException {
+        List<Map.Entry<String, List<SelfHealingSdk.HealCandidate>>> sorted = new ArrayList<>(decisions.entrySet());
+        long[] hashes = new long[sorted.size()];
+        sorted.sort((a, b) -> Long.compare(RegistrationJournal.hash(a.getKey()), RegistrationJournal.hash(b.getKey())));
+
+        int dataStart = HEADER_SIZE + sorted.size() * INDEX_ENTRY_SIZE;
+        int[] offsets = new int[sorted.size()];
+        int[] lengths = new int[sorted.size()];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        for (int i = 0; i < sorted.size(); i++) {
+            hashes[i] = RegistrationJournal.hash(sorted.get(i).getKey());
+            offsets[i] = dataStart + data.size();
+            writeString(data, sorted.get(i).getKey());
+            List<SelfHealingSdk.HealCandidate> candidates = sorted.get(i).getValue();
+            data.writeInt(candidates.size());
+            for (SelfHealingSdk.HealCandidate candidate : candidates) {
+                writeString(data, candidate.selector);
+                data.writeFloat(candidate.confidence);
+            }
+            lengths[i] = dataStart + data.size() - offsets[i];
+        }
+        if ((long) dataStart + data.size() > Integer.MAX_VALUE) {
+            throw new IOException("Heal snapshot would exceed 2 GB");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(dataStart + data.size());
+        out.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(0);
+        for (int i = 0; i < sorted.size(); i++) {
+            out.putLong(hashes[i]).putInt(offsets[i]).putInt(lengths[i]);
+        }
+        out.put(bytes.toByteArray());
+        return out.array();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static int validate(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a heal snapshot: " + path);
+        }
+        int count = buffer.getInt(8);
+        if (count < 0 || HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE > buffer.capacity()) {
+            throw new IOException("Truncated heal snapshot: " + path);
+        }
+        return count;
+    }
+
+    private long hashAt(int index) {
+        return buffer.getLong(HEADER_SIZE + index * INDEX_ENTRY_SIZE);
+    }
+
+    private byte[] bytesAt(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+
+    private List<SelfHealingSdk.HealCandidate> candidatesAt(int offset) {
+        int size = buffer.getInt(offset);
+        offset += 4;
+        List<SelfHealingSdk.HealCandidate> candidates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int length = buffer.getInt(offset);
+            SelfHealingSdk.HealCandidate candidate = new SelfHealingSdk.HealCandidate();
+            candidate.selector = new String(bytesAt(offset + 4, length), StandardCharsets.UTF_8);
+            candidate.confidence = buffer.getFloat(offset + 4 + length);
+            candidates.add(candidate);
+            offset += 4 + length + 4;
+        }
+        return candidates;
+    }
+
+    private void onShutdown() {
+        if (mode == Mode.RECORD) {
+            try {
+                write();
+                System.out.println("[HealSnapshot] " + recorded.size() + " heal decisions recorded to " + path);
+            } catch (IOException e) {
+                System.err.println("[HealSnapshot] Writing " + path + " failed: " + e.getMessage());
+            }
+        } else if (!unknownKeys.isEmpty()) {
+            System.err.println("[HealSnapshot] " + misses.get() + " heal requests not in " + path
+                    + ", refresh it with -Dselfhealing.snapshot.mode=record:");
+            unknownKeys.stream().sorted().limit(20).forEach(key -> System.err.println("  " + key.replace('\n', ' ')));
+        }
+    }
+
+    // Keys requested in replay mode that the snapshot does not hold (first MAX_UNKNOWN_KEYS)
+    public Set<String> getUnknownKeys() {
+        return Collections.unmodifiableSet(new TreeSet<>(unknownKeys));
+    }
+
+    public int size() {
+        return mode == Mode.RECORD ? recorded.size() : count;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.RECORD
+                ? "record path=" + path + " decisions=" + recorded.size()
+                : "replay path=" + path + " entries=" + count + " hits=" + hits.get() + " unknown=" + misses.get();
+    }
+}
@@ -0,0 +1,12 @@
+package com.sdk;
+
+import java.io.IOException;
+
+// Thrown in heal snapshot replay mode for a heal request the snapshot does not hold, instead of calling the healing API
+public class HealSnapshotMissException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public HealSnapshotMissException(String failedSelector) {
+        super("Not in heal snapshot, not calling the healing service: " + failedSelector);
+    }
+}
@@ -0,0 +1,240 @@
+package com.sdk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Default transport: one shared java.net.http.HttpClient (keep-alive pool, HTTP/2 over TLS when the server
+// offers it, HTTP/1.1 without an h2c upgrade attempt for plain http), gzip responses and, when enabled with
+// compressMinBytes, large request bodies, connect timeout and per-call deadlines. Response bodies are streamed,
+// never buffered whole. A deadline covers the whole exchange, response body included: waiting for more of the
+// body past it aborts the exchange, so a service that stalls mid-body cannot hang the caller.
+public class JdkHttpTransport implements SelfHealingTransport {
+
+    private static volatile HttpClient sharedClient;
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Duration readTimeout;
+    private final int compressMinBytes;
+
+    // Cleared when the service rejects a gzip request body (415, or 400 / 422 from services that try to parse it)
+    private volatile boolean requestCompression = true;
+
+    public JdkHttpTransport(String baseUrl) {
+        this(baseUrl, sharedClient(), Duration.ofMillis(SelfHealingConfig.HTTP_READ_TIMEOUT_MS));
+    }
+
+    public JdkHttpTransport(String baseUrl, HttpClient client, Duration readTimeout) {
+        this(baseUrl, client, readTimeout, SelfHealingConfig.HTTP_COMPRESS_MIN_BYTES);
+    }
+
+    public JdkHttpTransport(String baseUrl, HttpClient client, Duration readTimeout, int compressMinBytes) {
+        this.baseUrl = baseUrl;
+        this.client = client;
+        this.readTimeout = readTimeout;
+        this.compressMinBytes = compressMinBytes;
+    }
+
+    // All SDK instances in the JVM share one client and therefore one connection pool
+    static HttpClient sharedClient() {
+        HttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (JdkHttpTransport.class) {
+                client = sharedClient;
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .connectTimeout(Duration.ofMillis(SelfHealingConfig.HTTP_CONNECT_TIMEOUT_MS))
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .executor(SdkExecutors.perTask("self-healing-http"))
+                            .build();
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    @Override
+    public InputStream post(String endpoint, String contentType, byte[] body) throws IOException {
+        return post(endpoint, contentType, body, readTimeout);
+    }
+
+    @Override
+    public InputStream get(String endpoint) throws IOException {
+        return get(endpoint, readTimeout);
+    }
+
+    @Override
+    public InputStream post(String endpoint, String contentType, byte[] body, Duration timeout) throws IOException {
+        if (compress(body)) {
+            try {
+                return send(newPost(endpoint, contentType, body, timeout), timeout);
+            } catch (SelfHealingHttpException e) {
+                if (!rejectsGzip(e.getStatusCode())) {
+                    throw e;
+                }
+                disableRequestCompression(e.getStatusCode());
+            }
+        }
+        return send(newPost(endpoint, contentType, body, timeout), timeout);
+    }
+
+    @Override
+    public InputStream get(String endpoint, Duration timeout) throws IOException {
+        return send(newRequest(endpoint, timeout).GET().build(), timeout);
+    }
+
+    @Override
+    public CompletableFuture<InputStream> postAsync(String endpoint, String contentType, byte[] body, Duration timeout) {
+        if (!compress(body)) {
+            return sendAsync(newPost(endpoint, contentType, body, timeout), timeout);
+        }
+        return sendAsync(newPost(endpoint, contentType, body, timeout), timeout).exceptionallyCompose(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof SelfHealingHttpException e && rejectsGzip(e.getStatusCode())) {
+                disableRequestCompression(e.getStatusCode());
+                return sendAsync(newPost(endpoint, contentType, body, timeout), timeout);
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    private CompletableFuture<InputStream> sendAsync(HttpRequest request, Duration timeout) {
+        Duration deadline = deadline(timeout);
+        CompletableFuture<HttpResponse<InputStream>> exchange = client.sendAsync(request, streaming(request, deadline));
+        return exchange.copy()
+                .orTimeout(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        try {
+                            return body(response);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof TimeoutException) {
+                        // Aborts the exchange, the connection is not left reading a stalled body
+                        exchange.cancel(true);
+                        cause = timeoutException(request, deadline);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    private HttpRequest newPost(String endpoint, String contentType, byte[] body, Duration timeout) {
+        HttpRequest.Builder builder = newRequest(endpoint, timeout).header("Content-Type", contentType);
+        if (compress(body)) {
+            builder.header("Content-Encoding", "gzip");
+            body = gzip(body);
+        }
+        return builder.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+    }
+
+    private boolean compress(byte[] body) {
+        return requestCompression && compressMinBytes > 0 && body.length >= compressMinBytes;
+    }
+
+    // Statuses a service answers a gzip body it cannot decode with: 415, or 400 / 422 when it parsed the raw bytes
+    private static boolean rejectsGzip(int statusCode) {
+        return statusCode == 415 || statusCode == 400 || statusCode == 422;
+    }
+
+    private void disableRequestCompression(int statusCode) {
+        if (requestCompression) {
+            requestCompression = false;
+            System.err.println("[JdkHttpTransport] Service rejected a gzip request body (" + statusCode + "), sending them uncompressed");
+        }
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            // In-memory streams do not fail
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // The request timeout only bounds the wait for the response headers, send() bounds the rest
+    private HttpRequest.Builder newRequest(String endpoint, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+                .timeout(deadline(timeout))
+                .header("Accept-Encoding", "gzip");
+        if (baseUrl.regionMatches(true, 0, "http:", 0, 5)) {
+            // No h2c upgrade handshake on cleartext connections
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        return builder;
+    }
+
+    private Duration deadline(Duration timeout) {
+        return timeout != null ? timeout : readTimeout;
+    }
+
+    // Headers within the deadline, the returned stream enforces it on the body
+    private InputStream send(HttpRequest request, Duration timeout) throws IOException {
+        Duration deadline = deadline(timeout);
+        CompletableFuture<HttpResponse<InputStream>> exchange = client.sendAsync(request, streaming(request, deadline));
+        try {
+            return body(exchange.get(deadline.toNanos(), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            exchange.cancel(true);
+            throw timeoutException(request, deadline);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + request.uri());
+        }
+    }
+
+    // The deadline starts with the request, the body stream gets what is left of it after the headers
+    private static HttpResponse.BodyHandler<InputStream> streaming(HttpRequest request, Duration deadline) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        return info -> new DeadlineInputStream(deadlineNanos, () -> timeoutException(request, deadline));
+    }
+
+    private static HttpTimeoutException timeoutException(HttpRequest request, Duration deadline) {
+        return new HttpTimeoutException("No complete response from " + request.uri() + " within " + deadline.toMillis() + " ms");
+    }
+
+    private static InputStream body(HttpResponse<InputStream> response) throws IOException {
+        InputStream body = response.body();
+        if (response.statusCode() / 100 != 2) {
+            body.close();
+            throw new SelfHealingHttpException(response.statusCode());
+        }
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(v -> v.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        if (!gzip) {
+            return body;
+        }
+        try {
+            return new GZIPInputStream(body);
+        } catch (IOException e) {
+            body.close();
+            throw e;
+        }
+    }
+}
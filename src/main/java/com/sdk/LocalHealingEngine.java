@@ -0,0 +1,538 @@
+package com.sdk;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Client-side healer: keeps known fingerprints in an in-memory index (page -> selector / id / name / text tokens)
+// and, when a lookup fails, scores the elements of one DOM snapshot against the stored attributes.
+// Only low-confidence results are sent on to the remote /heal-selector endpoint.
+//
+// The index is bounded: at most maxPerPage elements per page (further ones are not indexed, logged once per
+// page) and maxFingerprints in total, least recently used pages dropped first. An entry holds the attributes
+// without outer_html, roughly 1 KB, so the defaults (100k) cap the index around 100 MB.
+public class LocalHealingEngine {
+
+    // Attribute weights used for scoring, only attributes present on the stored fingerprint count
+    private static final float ID_WEIGHT = 0.30f;
+    private static final float NAME_WEIGHT = 0.15f;
+    private static final float TAG_WEIGHT = 0.10f;
+    private static final float TEXT_WEIGHT = 0.20f;
+    private static final float CLASS_WEIGHT = 0.10f;
+    private static final float OTHER_WEIGHT = 0.15f;
+    private static final String[] OTHER_ATTRIBUTES = {"type", "placeholder", "aria-label", "href", "title", "role", "value", "data-testid", "alt"};
+
+    // Two candidates this close are treated as ambiguous
+    private static final float AMBIGUITY_MARGIN = 0.05f;
+
+    static final String SNAPSHOT_SCRIPT =
+            "var tag = arguments[0], max = arguments[1], out = [];"
+            + "var query = 'a,button,input,select,textarea,label,[role],[onclick]';"
+            + "var nodes; try { nodes = document.querySelectorAll(tag ? tag + ',' + query : query); } catch (e) { nodes = document.querySelectorAll(query); }"
+            + "function path(el) { var parts = [];"
+            + " while (el && el.nodeType === 1 && el !== document.documentElement) {"
+            + "  if (el.id) { parts.unshift('#' + CSS.escape(el.id)); break; }"
+            + "  var i = 1, s = el; while ((s = s.previousElementSibling)) { if (s.tagName === el.tagName) i++; }"
+            + "  parts.unshift(el.tagName.toLowerCase() + ':nth-of-type(' + i + ')'); el = el.parentElement; }"
+            + " return parts.join(' > '); }"
+            + "for (var i = 0; i < nodes.length && out.length < max; i++) {"
+            + " var el = nodes[i], attrs = {};"
+            + " for (var j = 0; j < el.attributes.length; j++) { var a = el.attributes[j]; if (a.value.length <= 256) attrs[a.name] = a.value; }"
+            + " out.push({ element: el, tag_name: el.tagName.toLowerCase(), text: (el.innerText || el.value || '').trim().substring(0, 200),"
+            + "  attributes: attrs, css_path: path(el), visible: !!(el.offsetWidth || el.offsetHeight || el.getClientRects().length) }); }"
+            + "return out;";
+
+    private final Map<String, PageIndex> pages = new ConcurrentHashMap<>();
+    private final int maxCandidates;
+    private final int maxPerPage;
+    private final int maxFingerprints;
+    // Entries across all pages, kept with the pages' byElement maps
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong healed = new AtomicLong();
+    private final AtomicLong lowConfidence = new AtomicLong();
+    private final AtomicLong unknown = new AtomicLong();
+    private final AtomicLong unverified = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong evictedPages = new AtomicLong();
+
+    public LocalHealingEngine() {
+        this(SelfHealingConfig.LOCAL_HEAL_MAX_CANDIDATES, SelfHealingConfig.LOCAL_HEAL_MAX_PER_PAGE,
+                SelfHealingConfig.LOCAL_HEAL_MAX_FINGERPRINTS);
+    }
+
+    public LocalHealingEngine(int maxCandidates, int maxPerPage, int maxFingerprints) {
+        this.maxCandidates = maxCandidates;
+        this.maxPerPage = Math.max(1, maxPerPage);
+        this.maxFingerprints = Math.max(1, maxFingerprints);
+    }
+
+    // Result of a local heal: the matched element, a selector that finds it and the score
+    public static class LocalHealResult {
+        public final WebElement element;
+        public final String healedSelector;
+        public final float confidence;
+
+        LocalHealResult(WebElement element, String healedSelector, float confidence) {
+            this.element = element;
+            this.healedSelector = healedSelector;
+            this.confidence = confidence;
+        }
+    }
+
+    // Stored fingerprint, without outer_html so the index stays small
+    static final class IndexedFingerprint {
+        final Map<String, String> attributes;
+        final String tagName;
+        final Set<String> textTokens;
+        final Set<String> classTokens;
+        // bySelector keys pointing at this entry, removed with it when the element is indexed again
+        final List<String> selectorKeys = new ArrayList<>();
+
+        IndexedFingerprint(Map<String, String> source) {
+            Map<String, String> copy = new HashMap<>(source);
+            copy.remove("outer_html");
+            this.attributes = copy;
+            this.tagName = lower(copy.get("tag_name"));
+            this.textTokens = tokens(copy.get("text"));
+            this.classTokens = tokens(copy.get("class"));
+        }
+    }
+
+    private static final class PageIndex {
+        // Element key (see elementKey) -> its current entry; a re-indexed element replaces its entry everywhere.
+        // Guarded by the PageIndex, its size is the page's share of the engine's size.
+        final Map<String, IndexedFingerprint> byElement = new HashMap<>();
+        // System.nanoTime() of the last index or lookup, for the page LRU
+        volatile long lastAccess = System.nanoTime();
+        // Evicted pages are left alone by threads still holding them
+        boolean evicted;
+        boolean capLogged;
+        final Map<String, IndexedFingerprint> bySelector = new ConcurrentHashMap<>();
+        final Map<String, IndexedFingerprint> byId = new ConcurrentHashMap<>();
+        final Map<String, IndexedFingerprint> byName = new ConcurrentHashMap<>();
+        final Map<String, Set<IndexedFingerprint>> byTag = new ConcurrentHashMap<>();
+        final Map<String, Set<IndexedFingerprint>> byTextToken = new ConcurrentHashMap<>();
+    }
+
+    // Index a fingerprint (from getAllFingerprints or a fresh registration).
+    // selectorKey is the By.toString() it was found with, may be null.
+    // The same element indexed again (next session, page capture, prefetch) replaces its previous entry.
+    public void index(SelfHealingSdk.ElementFingerprint fingerprint, String selectorKey) {
+        if (fingerprint == null || fingerprint.attributes == null) {
+            return;
+        }
+        IndexedFingerprint entry = new IndexedFingerprint(fingerprint.attributes);
+        if (selectorKey != null) {
+            entry.selectorKeys.add(selectorKey);
+        }
+        if (fingerprint.selectors != null) {
+            for (String selector : fingerprint.selectors) {
+                String key = toByString(selector);
+                if (key != null) {
+                    entry.selectorKeys.add(key);
+                }
+            }
+        }
+        String elementKey = elementKey(fingerprint, entry);
+        String pageKey = PageUrls.normalize(fingerprint.attributes.get("page_url"));
+        PageIndex page;
+        do {
+            page = pages.computeIfAbsent(pageKey, k -> new PageIndex());
+            page.lastAccess = System.nanoTime();
+        } while (!add(page, pageKey, elementKey, entry));
+        if (size.get() > maxFingerprints) {
+            evictLeastRecentlyUsedPages();
+        }
+    }
+
+    // False when the page was evicted meanwhile, the caller retries with the page's new index
+    private boolean add(PageIndex page, String pageKey, String elementKey, IndexedFingerprint entry) {
+        synchronized (page) {
+            if (page.evicted) {
+                return false;
+            }
+            if (page.byElement.size() >= maxPerPage && !page.byElement.containsKey(elementKey)) {
+                skipped.incrementAndGet();
+                if (!page.capLogged) {
+                    page.capLogged = true;
+                    System.err.println("[LocalHealingEngine] " + maxPerPage + " elements indexed on " + pageKey
+                            + ", not indexing more of them (selfhealing.localHealing.maxPerPage)");
+                }
+                return true;
+            }
+            IndexedFingerprint previous = page.byElement.put(elementKey, entry);
+            if (previous != null) {
+                remove(page, previous);
+            } else {
+                size.incrementAndGet();
+            }
+            for (String key : entry.selectorKeys) {
+                page.bySelector.put(key, entry);
+            }
+            String id = entry.attributes.get("id");
+            if (id != null && !id.isEmpty()) {
+                page.byId.put(id, entry);
+            }
+            String name = entry.attributes.get("name");
+            if (name != null && !name.isEmpty()) {
+                page.byName.put(name, entry);
+            }
+            if (!entry.tagName.isEmpty()) {
+                page.byTag.computeIfAbsent(entry.tagName, k -> ConcurrentHashMap.newKeySet()).add(entry);
+            }
+            for (String token : entry.textTokens) {
+                page.byTextToken.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(entry);
+            }
+        }
+        indexed.incrementAndGet();
+        return true;
+    }
+
+    // Drops whole pages, least recently used first, until the index is within maxFingerprints again
+    private void evictLeastRecentlyUsedPages() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, PageIndex>> all = new ArrayList<>(pages.entrySet());
+            all.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            // The most recently used page is kept even when it alone is over the limit
+            for (int i = 0; i < all.size() - 1 && size.get() > maxFingerprints; i++) {
+                Map.Entry<String, PageIndex> oldest = all.get(i);
+                PageIndex page = oldest.getValue();
+                synchronized (page) {
+                    if (pages.remove(oldest.getKey(), page)) {
+                        page.evicted = true;
+                        size.addAndGet(-page.byElement.size());
+                        evictedPages.incrementAndGet();
+                    }
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // Identifies the element across registrations: its id attribute, else its first selector, else the fingerprint id
+    private static String elementKey(SelfHealingSdk.ElementFingerprint fingerprint, IndexedFingerprint entry) {
+        String id = entry.attributes.get("id");
+        if (id != null && !id.isEmpty()) {
+            return "id:" + id;
+        }
+        if (!entry.selectorKeys.isEmpty()) {
+            return entry.selectorKeys.get(0);
+        }
+        return fingerprint.id != null ? fingerprint.id.toString() : "entry:" + System.identityHashCode(entry);
+    }
+
+    // Drops the entry from every index that still points at it
+    private static void remove(PageIndex page, IndexedFingerprint entry) {
+        for (String key : entry.selectorKeys) {
+            page.bySelector.remove(key, entry);
+        }
+        String id = entry.attributes.get("id");
+        if (id != null) {
+            page.byId.remove(id, entry);
+        }
+        String name = entry.attributes.get("name");
+        if (name != null) {
+            page.byName.remove(name, entry);
+        }
+        Set<IndexedFingerprint> sameTag = page.byTag.get(entry.tagName);
+        if (sameTag != null) {
+            sameTag.remove(entry);
+        }
+        for (String token : entry.textTokens) {
+            Set<IndexedFingerprint> withToken = page.byTextToken.get(token);
+            if (withToken != null) {
+                withToken.remove(entry);
+            }
+        }
+    }
+
+    public void indexAll(Iterator<SelfHealingSdk.ElementFingerprint> fingerprints) {
+        while (fingerprints.hasNext()) {
+            index(fingerprints.next(), null);
+        }
+    }
+
+    // Returns null when nothing is known about the selector on this page (no browser round trip in that case)
+    public LocalHealResult heal(WebDriver driver, String failedSelector, String pageUrl) {
+        IndexedFingerprint stored = lookup(failedSelector, pageUrl);
+        if (stored == null) {
+            unknown.incrementAndGet();
+            return null;
+        }
+        if (!(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        Object snapshot = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT, stored.tagName, maxCandidates);
+        if (!(snapshot instanceof List)) {
+            return null;
+        }
+
+        Map<?, ?> best = null;
+        float bestScore = 0;
+        float secondScore = 0;
+        for (Object item : (List<?>) snapshot) {
+            if (!(item instanceof Map)) {
+                continue;
+            }
+            Map<?, ?> candidate = (Map<?, ?>) item;
+            float score = score(stored, candidate);
+            if (Boolean.FALSE.equals(candidate.get("visible"))) {
+                score *= 0.8f;
+            }
+            if (score > bestScore) {
+                secondScore = bestScore;
+                bestScore = score;
+                best = candidate;
+            } else if (score > secondScore) {
+                secondScore = score;
+            }
+        }
+        if (best == null || !(best.get("element") instanceof WebElement)) {
+            lowConfidence.incrementAndGet();
+            return null;
+        }
+
+        float confidence = bestScore - secondScore < AMBIGUITY_MARGIN ? bestScore / 2 : bestScore;
+        if (confidence < SelfHealingConfig.LOCAL_HEAL_MIN_CONFIDENCE) {
+            lowConfidence.incrementAndGet();
+            return new LocalHealResult((WebElement) best.get("element"), selectorFor(best), confidence);
+        }
+        // Same check as for service candidates: the healed selector must match exactly one visible element
+        CandidateVerifier.VerifiedCandidate verified = CandidateVerifier.verify(driver, selectorsFor(best, confidence));
+        if (verified == null) {
+            unverified.incrementAndGet();
+            return null;
+        }
+        healed.incrementAndGet();
+        return new LocalHealResult(verified.element, verified.selector, confidence);
+    }
+
+    // Stored fingerprint for a failed selector: exact selector first, then id / name / link text indexes
+    IndexedFingerprint lookup(String failedSelector, String pageUrl) {
+        PageIndex page = pages.get(PageUrls.normalize(pageUrl));
+        if (page == null || failedSelector == null) {
+            return null;
+        }
+        page.lastAccess = System.nanoTime();
+        IndexedFingerprint entry = page.bySelector.get(failedSelector);
+        if (entry != null) {
+            return entry;
+        }
+        int colon = failedSelector.indexOf(": ");
+        if (colon < 0) {
+            return null;
+        }
+        String type = failedSelector.substring(0, colon);
+        String value = failedSelector.substring(colon + 2);
+        switch (type) {
+            case "By.id":
+                return page.byId.get(value);
+            case "By.name":
+                return page.byName.get(value);
+            case "By.tagName":
+                Set<IndexedFingerprint> sameTag = page.byTag.getOrDefault(lower(value), Collections.emptySet());
+                return sameTag.size() == 1 ? sameTag.iterator().next() : null;
+            case "By.linkText":
+            case "By.partialLinkText":
+                return bestTextMatch(page, tokens(value));
+            default:
+                return null;
+        }
+    }
+
+    private static IndexedFingerprint bestTextMatch(PageIndex page, Set<String> wanted) {
+        Map<IndexedFingerprint, Integer> overlap = new HashMap<>();
+        for (String token : wanted) {
+            for (IndexedFingerprint entry : page.byTextToken.getOrDefault(token, Collections.emptySet())) {
+                overlap.merge(entry, 1, Integer::sum);
+            }
+        }
+        IndexedFingerprint best = null;
+        int bestCount = 0;
+        for (Map.Entry<IndexedFingerprint, Integer> e : overlap.entrySet()) {
+            if (e.getValue() > bestCount) {
+                best = e.getKey();
+                bestCount = e.getValue();
+            }
+        }
+        return best;
+    }
+
+    static float score(IndexedFingerprint stored, Map<?, ?> candidate) {
+        Map<?, ?> attrs = candidate.get("attributes") instanceof Map ? (Map<?, ?>) candidate.get("attributes") : Collections.emptyMap();
+        float total = 0;
+        float matched = 0;
+
+        String id = stored.attributes.get("id");
+        if (id != null && !id.isEmpty()) {
+            total += ID_WEIGHT;
+            if (id.equals(attrs.get("id"))) matched += ID_WEIGHT;
+        }
+        String name = stored.attributes.get("name");
+        if (name != null && !name.isEmpty()) {
+            total += NAME_WEIGHT;
+            if (name.equals(attrs.get("name"))) matched += NAME_WEIGHT;
+        }
+        if (!stored.tagName.isEmpty()) {
+            total += TAG_WEIGHT;
+            if (stored.tagName.equals(candidate.get("tag_name"))) matched += TAG_WEIGHT;
+        }
+        if (!stored.textTokens.isEmpty()) {
+            total += TEXT_WEIGHT;
+            matched += TEXT_WEIGHT * jaccard(stored.textTokens, tokens(asString(candidate.get("text"))));
+        }
+        if (!stored.classTokens.isEmpty()) {
+            total += CLASS_WEIGHT;
+            matched += CLASS_WEIGHT * jaccard(stored.classTokens, tokens(asString(attrs.get("class"))));
+        }
+        int present = 0;
+        int equal = 0;
+        for (String attribute : OTHER_ATTRIBUTES) {
+            String value = stored.attributes.get(attribute);
+            if (value != null && !value.isEmpty()) {
+                present++;
+                if (value.equals(attrs.get(attribute))) equal++;
+            }
+        }
+        if (present > 0) {
+            total += OTHER_WEIGHT;
+            matched += OTHER_WEIGHT * equal / present;
+        }
+        return total == 0 ? 0 : matched / total;
+    }
+
+    // The id selector, then the structural path, as candidates for CandidateVerifier
+    private static List<SelfHealingSdk.HealCandidate> selectorsFor(Map<?, ?> best, float confidence) {
+        List<SelfHealingSdk.HealCandidate> candidates = new ArrayList<>();
+        for (String selector : new String[]{selectorFor(best), "By.cssSelector: " + asString(best.get("css_path"))}) {
+            if (!selector.endsWith(": ") && candidates.stream().noneMatch(c -> c.selector.equals(selector))) {
+                SelfHealingSdk.HealCandidate candidate = new SelfHealingSdk.HealCandidate();
+                candidate.selector = selector;
+                candidate.confidence = confidence;
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    private static String selectorFor(Map<?, ?> candidate) {
+        Object attrs = candidate.get("attributes");
+        if (attrs instanceof Map) {
+            String id = asString(((Map<?, ?>) attrs).get("id"));
+            if (!id.isEmpty()) {
+                return "By.id: " + id;
+            }
+        }
+        return "By.cssSelector: " + asString(candidate.get("css_path"));
+    }
+
+    // Fingerprint selectors are stored as "css: x" / "xpath: x" or as By.toString(), index them as By.toString()
+    static String toByString(String selector) {
+        if (selector == null || selector.isEmpty()) {
+            return null;
+        }
+        if (selector.startsWith("By.")) {
+            return selector;
+        }
+        if (selector.startsWith("css: ")) {
+            return "By.cssSelector: " + selector.substring("css: ".length());
+        }
+        if (selector.startsWith("xpath: ")) {
+            return "By.xpath: " + selector.substring("xpath: ".length());
+        }
+        return null;
+    }
+
+    static Set<String> tokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> tokens = new HashSet<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= 2) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static float jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String token : a) {
+            if (b.contains(token)) common++;
+        }
+        return (float) common / (a.size() + b.size() - common);
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    public long getIndexedCount() {
+        return indexed.get();
+    }
+
+    // Entries currently held, at most maxFingerprints (plus what the most recent page holds beyond it)
+    public int size() {
+        return size.get();
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    // Fingerprints not indexed because their page had maxPerPage elements already
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    public long getEvictedPageCount() {
+        return evictedPages.get();
+    }
+
+    public long getHealedCount() {
+        return healed.get();
+    }
+
+    public long getLowConfidenceCount() {
+        return lowConfidence.get();
+    }
+
+    public long getUnknownSelectorCount() {
+        return unknown.get();
+    }
+
+    // Confident matches dropped because their selector was not unique or not visible in the page
+    public long getUnverifiedCount() {
+        return unverified.get();
+    }
+}
@@ -0,0 +1,120 @@
+package com.sdk;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Captures compact fingerprints of every interactable element of the page in one executeScript round trip,
+// each with several generated selectors (id, test/name/aria attributes, link or button text, structural
+// CSS and XPath paths). Used on the first lookup of a page instead of one capture per selector.
+public final class PageCapture {
+
+    private PageCapture() {
+    }
+
+    static final String PAGE_CAPTURE_SCRIPT =
+            "var current = arguments[0], max = arguments[1];"
+            + "var nodes = document.querySelectorAll('a[href],button,input:not([type=hidden]),select,textarea,"
+            + "[role=button],[role=link],[role=checkbox],[role=tab],[role=menuitem],[onclick],[contenteditable=true],"
+            + "[tabindex]:not([tabindex=\"-1\"])');"
+            + "var keys = ['id','name','class','type','href','value','title','role','aria-label','placeholder','alt','data-testid','data-test'];"
+            + "function esc(v) { return window.CSS && CSS.escape ? CSS.escape(v) : v.replace(/([^\\w-])/g, '\\\\$1'); }"
+            + "function lit(v) { return v.indexOf(\"'\") < 0 ? \"'\" + v + \"'\" : (v.indexOf('\"') < 0 ? '\"' + v + '\"' : null); }"
+            + "function nth(el) { var i = 1, s = el; while ((s = s.previousElementSibling)) { if (s.tagName === el.tagName) i++; } return i; }"
+            + "function cssPath(el) { var parts = [];"
+            + " while (el && el.nodeType === 1 && el !== document.documentElement) {"
+            + "  if (el.id) { parts.unshift('#' + esc(el.id)); break; }"
+            + "  parts.unshift(el.tagName.toLowerCase() + ':nth-of-type(' + nth(el) + ')'); el = el.parentElement; }"
+            + " return parts.join(' > '); }"
+            + "function xpath(el) { var parts = [];"
+            + " for (; el && el.nodeType === 1; el = el.parentElement) { parts.unshift(el.tagName.toLowerCase() + '[' + nth(el) + ']'); }"
+            + " return '/' + parts.join('/'); }"
+            + "var url; try { url = window.top.location.href; } catch (e) { url = window.location.href; }"
+            + "var out = [], currentIndex = -1;"
+            + "for (var n = 0; n < nodes.length && out.length < max; n++) {"
+            + " var el = nodes[n], r = el.getBoundingClientRect();"
+            + " if (el !== current && r.width === 0 && r.height === 0) continue;"
+            + " var tag = el.tagName.toLowerCase(), attrs = {}, sel = [];"
+            + " for (var k = 0; k < keys.length; k++) { var v = el.getAttribute(keys[k]);"
+            + "  if (v !== null && v !== '') attrs[keys[k]] = v.length > 200 ? v.substring(0, 200) : v; }"
+            + " var text = (el.innerText || el.value || '').trim().replace(/\\s+/g, ' ').substring(0, 200);"
+            + " if (el.id) { sel.push('css: #' + esc(el.id)); var q = lit(el.id); if (q) sel.push('xpath: //*[@id=' + q + ']'); }"
+            + " ['data-testid','data-test','name','aria-label','placeholder'].forEach(function (a) { var v = el.getAttribute(a);"
+            + "  if (v) sel.push('css: ' + tag + '[' + a + '=\"' + v.replace(/\\\\/g, '\\\\\\\\').replace(/\"/g, '\\\\\"') + '\"]'); });"
+            + " if (text && text.length <= 50 && (tag === 'a' || tag === 'button')) { var t = lit(text); if (t) sel.push('xpath: //' + tag + '[normalize-space()=' + t + ']'); }"
+            + " sel.push('css: ' + cssPath(el)); sel.push('xpath: ' + xpath(el));"
+            + " if (el === current) currentIndex = out.length;"
+            + " out.push({ attributes: attrs, tag_name: tag, text: text, selectors: sel,"
+            + "  bounding_box: Math.round(r.left) + ',' + Math.round(r.top) + ',' + Math.round(r.width) + ',' + Math.round(r.height) }); }"
+            + "return { page_url: url, current: currentIndex, elements: out };";
+
+    public static final class Result {
+        public final String pageUrl;
+        public final List<SelfHealingSdk.ElementFingerprint> fingerprints;
+        // Index of the element the lookup found, -1 when it is not one of the interactable elements
+        public final int current;
+
+        Result(String pageUrl, List<SelfHealingSdk.ElementFingerprint> fingerprints, int current) {
+            this.pageUrl = pageUrl;
+            this.fingerprints = fingerprints;
+            this.current = current;
+        }
+    }
+
+    // Null when the driver cannot run scripts or the script returned nothing usable
+    public static Result capture(WebDriver driver, WebElement current, int maxElements) {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        Object result = ((JavascriptExecutor) driver).executeScript(PAGE_CAPTURE_SCRIPT, current, maxElements);
+        if (!(result instanceof Map) || !(((Map<?, ?>) result).get("elements") instanceof List)) {
+            return null;
+        }
+        Map<?, ?> page = (Map<?, ?>) result;
+        String pageUrl = stringValue(page.get("page_url"));
+        List<?> elements = (List<?>) page.get("elements");
+        List<SelfHealingSdk.ElementFingerprint> fingerprints = new ArrayList<>(elements.size());
+        for (Object item : elements) {
+            if (!(item instanceof Map)) {
+                continue;
+            }
+            Map<?, ?> element = (Map<?, ?>) item;
+            Map<String, String> attributes = new HashMap<>();
+            if (element.get("attributes") instanceof Map) {
+                for (Map.Entry<?, ?> attribute : ((Map<?, ?>) element.get("attributes")).entrySet()) {
+                    attributes.put(String.valueOf(attribute.getKey()), stringValue(attribute.getValue()));
+                }
+            }
+            attributes.put("page_url", pageUrl);
+            attributes.put("tag_name", stringValue(element.get("tag_name")));
+            attributes.put("text", stringValue(element.get("text")));
+            attributes.put("bounding_box", stringValue(element.get("bounding_box")));
+
+            List<String> selectors = new ArrayList<>();
+            if (element.get("selectors") instanceof List) {
+                for (Object selector : (List<?>) element.get("selectors")) {
+                    if (selector != null && !selectors.contains(selector.toString())) {
+                        selectors.add(selector.toString());
+                    }
+                }
+            }
+
+            SelfHealingSdk.ElementFingerprint fingerprint = new SelfHealingSdk.ElementFingerprint();
+            fingerprint.id = FingerprintIds.next();
+            fingerprint.attributes = attributes;
+            fingerprint.selectors = selectors;
+            fingerprints.add(fingerprint);
+        }
+        int index = page.get("current") instanceof Number ? ((Number) page.get("current")).intValue() : -1;
+        return new Result(pageUrl, fingerprints, index < fingerprints.size() ? index : -1);
+    }
+
+    private static String stringValue(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
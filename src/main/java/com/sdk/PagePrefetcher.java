@@ -0,0 +1,125 @@
+package com.sdk;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Per-session record of the pages whose fingerprints were fetched when the driver navigated to them.
+// The fetch runs on the given executor while the browser loads the page; every fingerprint is handed to
+// the sink (local healing index, registration dedupe), so a later heal on that page is answered in memory.
+public class PagePrefetcher {
+
+    private final SelfHealingSdk sdk;
+    private final Executor executor;
+    private final Consumer<SelfHealingSdk.ElementFingerprint> sink;
+
+    // Normalized page URL -> number of fingerprints fetched, least recently navigated evicted first
+    private final Map<String, CompletableFuture<Integer>> pages;
+
+    private final AtomicLong fetchedPages = new AtomicLong();
+    private final AtomicLong fetchedFingerprints = new AtomicLong();
+    private final AtomicLong failedFetches = new AtomicLong();
+
+    public PagePrefetcher(SelfHealingSdk sdk, Executor executor, Consumer<SelfHealingSdk.ElementFingerprint> sink) {
+        this(sdk, executor, sink, SelfHealingConfig.PREFETCH_MAX_PAGES);
+    }
+
+    public PagePrefetcher(SelfHealingSdk sdk, Executor executor, Consumer<SelfHealingSdk.ElementFingerprint> sink, int maxPages) {
+        this.sdk = sdk;
+        this.executor = executor;
+        this.sink = sink;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Integer>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    // Starts fetching the page unless this session already did, never blocks the caller
+    public CompletableFuture<Integer> prefetch(String pageUrl) {
+        String key = PageUrls.normalize(pageUrl);
+        if (key.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        CompletableFuture<Integer> future;
+        synchronized (pages) {
+            future = pages.get(key);
+            if (future != null && !future.isCompletedExceptionally()) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pages.put(key, future);
+        }
+        CompletableFuture<Integer> result = future;
+        executor.execute(() -> fetch(pageUrl, result));
+        return result;
+    }
+
+    private void fetch(String pageUrl, CompletableFuture<Integer> result) {
+        SelfHealingStageEvent span = SdkMetrics.start(SdkStage.PREFETCH);
+        try {
+            List<SelfHealingSdk.ElementFingerprint> fingerprints = sdk.getFingerprintsForPage(pageUrl);
+            for (SelfHealingSdk.ElementFingerprint fingerprint : fingerprints) {
+                sink.accept(fingerprint);
+            }
+            fetchedPages.incrementAndGet();
+            fetchedFingerprints.addAndGet(fingerprints.size());
+            SdkMetrics.end(span, null, pageUrl, "fetched " + fingerprints.size());
+            result.complete(fingerprints.size());
+        } catch (Exception e) {
+            failedFetches.incrementAndGet();
+            SdkMetrics.end(span, null, pageUrl, "failed");
+            System.err.println("[PagePrefetcher] Prefetch of " + pageUrl + " failed: " + e.getMessage());
+            result.completeExceptionally(e);
+        }
+    }
+
+    // Waits up to timeoutMs for a prefetch of the page that is still running.
+    // Returns false when the page was never prefetched, the fetch failed or it did not finish in time.
+    public boolean await(String pageUrl, long timeoutMs) {
+        CompletableFuture<Integer> future;
+        synchronized (pages) {
+            future = pages.get(PageUrls.normalize(pageUrl));
+        }
+        if (future == null) {
+            return false;
+        }
+        try {
+            future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    public boolean isPrefetched(String pageUrl) {
+        CompletableFuture<Integer> future;
+        synchronized (pages) {
+            future = pages.get(PageUrls.normalize(pageUrl));
+        }
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    public long getFetchedPageCount() {
+        return fetchedPages.get();
+    }
+
+    public long getFetchedFingerprintCount() {
+        return fetchedFingerprints.get();
+    }
+
+    public long getFailedFetchCount() {
+        return failedFetches.get();
+    }
+}
@@ -0,0 +1,71 @@
+package com.sdk;
+
+import java.net.URI;
+import java.util.Locale;
+
+// Page URL helpers shared by the caches
+public final class PageUrls {
+
+    private PageUrls() {
+    }
+
+    // Scheme and host lower-cased, default port, query, fragment and trailing slash dropped,
+    // so "https://Example.com:443/login/?next=x#top" and "https://example.com/login" are the same page.
+    // A fragment that is a client-side route ("#/settings", "#!/settings") is kept, without its own query
+    // and trailing slash, since it names another page of a hash-routed single page app.
+    public static String normalize(String pageUrl) {
+        if (pageUrl == null || pageUrl.isEmpty()) {
+            return "";
+        }
+        String url = pageUrl.trim();
+        return withoutRoute(url) + route(url);
+    }
+
+    private static String withoutRoute(String pageUrl) {
+        try {
+            URI uri = URI.create(pageUrl);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return stripQueryAndFragment(pageUrl);
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            boolean defaultPort = port == -1
+                    || ("http".equals(scheme) && port == 80)
+                    || ("https".equals(scheme) && port == 443);
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            while (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + (defaultPort ? "" : ":" + port) + path;
+        } catch (IllegalArgumentException e) {
+            return stripQueryAndFragment(pageUrl);
+        }
+    }
+
+    // "#/path" or "#!/path" of a hash-routed URL, "" for any other fragment
+    private static String route(String url) {
+        int h = url.indexOf('#');
+        if (h < 0 || h + 1 >= url.length() || (url.charAt(h + 1) != '/' && url.charAt(h + 1) != '!')) {
+            return "";
+        }
+        String route = url.substring(h);
+        int q = route.indexOf('?');
+        if (q >= 0) {
+            route = route.substring(0, q);
+        }
+        while (route.endsWith("/")) {
+            route = route.substring(0, route.length() - 1);
+        }
+        // "#/" and "#!" alone are the app's root
+        return route.length() <= 2 ? "" : route;
+    }
+
+    private static String stripQueryAndFragment(String url) {
+        int cut = url.length();
+        int q = url.indexOf('?');
+        int h = url.indexOf('#');
+        if (q >= 0) cut = Math.min(cut, q);
+        if (h >= 0) cut = Math.min(cut, h);
+        return url.substring(0, cut);
+    }
+}
@@ -0,0 +1,238 @@
+package com.sdk;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Append-only, memory-mapped journal of registered selectors shared by every JVM on the machine
+// (e.g. Gradle test forks), so a selector registered by one fork or an earlier run is not sent again.
+// Only registrations the service accepted are recorded, with a hash of the registered attributes: an element
+// whose content changed since is registered again. A record counts for ttlMs, after that the selector is
+// registered again as well, so a stale or wrong entry does not suppress registrations forever.
+//
+// Layout: 64 byte header (magic, version, record count) followed by fixed 24 byte records
+// (selector hash, content hash, time recorded in epoch millis). Appends take an exclusive lock on the header
+// and publish the new count with a release store after writing the record; readers load the count with an
+// acquire, so a reader that sees the new count also sees the record. A journal of an older version is
+// emptied and reused.
+public class RegistrationJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x53484a31; // "SHJ1"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final int COUNT_OFFSET = 8;
+    private static final int RECORD_SIZE = 24;
+    // Ordered access to the record count in the mapped buffer (big-endian like the rest of the file)
+    private static final VarHandle COUNT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+    private final long ttlMs;
+
+    // Selector hash -> latest record of it, for every record read so far
+    private final Map<Long, Record> known = new ConcurrentHashMap<>();
+    private long recordsRead;
+    private volatile boolean full;
+
+    public RegistrationJournal(Path path, long maxRecords) throws IOException {
+        this(path, maxRecords, SelfHealingConfig.JOURNAL_TTL_MS);
+    }
+
+    public RegistrationJournal(Path path, long maxRecords, long ttlMs) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.ttlMs = ttlMs;
+        // A single mapping is limited to 2 GB
+        this.capacity = Math.min(maxRecords, (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + capacity * RECORD_SIZE;
+        FileLock lock = channel.lock(0, HEADER_SIZE, false);
+        try {
+            if (channel.size() < size) {
+                // Sparse on most file systems, only written pages take disk space
+                channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            int magic = buffer.getInt(0);
+            if (magic == 0 || (magic == MAGIC && buffer.getInt(4) != VERSION)) {
+                buffer.putInt(4, VERSION);
+                COUNT.setRelease(buffer, COUNT_OFFSET, 0L);
+                buffer.putInt(0, MAGIC);
+            } else if (magic != MAGIC) {
+                channel.close();
+                throw new IOException("Not a registration journal: " + path);
+            }
+        } finally {
+            if (channel.isOpen()) {
+                lock.release();
+            }
+        }
+        refresh();
+    }
+
+    // Opens the journal configured with -Dselfhealing.journal.path, or returns null when it is not set / unusable
+    public static RegistrationJournal fromConfig() {
+        if (SelfHealingConfig.JOURNAL_PATH == null || SelfHealingConfig.JOURNAL_PATH.isEmpty()) {
+            return null;
+        }
+        try {
+            return new RegistrationJournal(Path.of(SelfHealingConfig.JOURNAL_PATH), SelfHealingConfig.JOURNAL_MAX_RECORDS);
+        } catch (IOException e) {
+            System.err.println("[RegistrationJournal] Journal disabled, cannot open " + SelfHealingConfig.JOURNAL_PATH + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Whether the selector was registered within the last ttlMs, by this or any other JVM, whatever its content
+    public boolean contains(String selector) {
+        return contains(hash(selector), null);
+    }
+
+    // Whether the selector was registered within the last ttlMs with these attributes
+    public boolean contains(String selector, Map<String, String> attributes) {
+        return contains(hash(selector), contentHash(attributes));
+    }
+
+    private boolean contains(long key, Long content) {
+        if (matches(known.get(key), content)) {
+            return true;
+        }
+        // Another JVM may have appended since we last looked
+        refresh();
+        return matches(known.get(key), content);
+    }
+
+    private boolean matches(Record record, Long content) {
+        return isFresh(record) && (content == null || record.content == content);
+    }
+
+    private boolean isFresh(Record record) {
+        return record != null && System.currentTimeMillis() - record.recordedAt < ttlMs;
+    }
+
+    // Called once the service accepted the registration of these attributes
+    public void record(String selector, Map<String, String> attributes) {
+        long key = hash(selector);
+        long content = contentHash(attributes);
+        Record current = known.get(key);
+        if (full || (isFresh(current) && current.content == content)) {
+            return;
+        }
+        Record record = new Record(content, System.currentTimeMillis());
+        synchronized (this) {
+            FileLock lock = null;
+            try {
+                lock = channel.lock(0, HEADER_SIZE, false);
+                long count = (long) COUNT.getAcquire(buffer, COUNT_OFFSET);
+                if (count >= capacity) {
+                    full = true;
+                    System.err.println("[RegistrationJournal] Journal full (" + capacity + " records), new registrations are no longer recorded");
+                    return;
+                }
+                int offset = (int) (HEADER_SIZE + count * RECORD_SIZE);
+                buffer.putLong(offset, key);
+                buffer.putLong(offset + 8, record.content);
+                buffer.putLong(offset + 16, record.recordedAt);
+                COUNT.setRelease(buffer, COUNT_OFFSET, count + 1);
+            } catch (IOException e) {
+                System.err.println("[RegistrationJournal] Append failed: " + e.getMessage());
+                return;
+            } finally {
+                release(lock);
+            }
+        }
+        known.merge(key, record, Record::latest);
+    }
+
+    private static void release(FileLock lock) {
+        if (lock != null && lock.isValid()) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                // Released with the channel at the latest
+            }
+        }
+    }
+
+    private synchronized void refresh() {
+        long count = Math.min((long) COUNT.getAcquire(buffer, COUNT_OFFSET), capacity);
+        for (long i = recordsRead; i < count; i++) {
+            int offset = (int) (HEADER_SIZE + i * RECORD_SIZE);
+            known.merge(buffer.getLong(offset), new Record(buffer.getLong(offset + 8), buffer.getLong(offset + 16)), Record::latest);
+        }
+        recordsRead = Math.max(recordsRead, count);
+    }
+
+    public int size() {
+        return known.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // Content fingerprint of the registered attributes, independent of map order. The bounding box is left out:
+    // it follows the window size and scrolling, not the element.
+    static long contentHash(Map<String, String> attributes) {
+        if (attributes == null) {
+            return 0L;
+        }
+        long h = 0xcbf29ce484222325L;
+        for (Map.Entry<String, String> entry : new TreeMap<>(attributes).entrySet()) {
+            if (!"bounding_box".equals(entry.getKey())) {
+                h = fnv(h, entry.getKey());
+                h = fnv(h, entry.getValue());
+            }
+        }
+        return mix(h);
+    }
+
+    static long hash(String value) {
+        return mix(fnv(0xcbf29ce484222325L, value));
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, with a 0xff separator (never part of UTF-8) so ("ab","c") != ("a","bc")
+    private static long fnv(long h, String value) {
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                h ^= (b & 0xff);
+                h *= 0x100000001b3L;
+            }
+        }
+        h ^= 0xff;
+        h *= 0x100000001b3L;
+        return h;
+    }
+
+    // Murmur3 finalizer, spreads FNV's weak low bits
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Record(long content, long recordedAt) {
+        static Record latest(Record a, Record b) {
+            return b.recordedAt >= a.recordedAt ? b : a;
+        }
+    }
+}
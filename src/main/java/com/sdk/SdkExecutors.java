@@ -0,0 +1,37 @@
+package com.sdk;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Threads for the SDK's background I/O (registration worker, prefetch, breaker probe, HTTP client).
+// Virtual threads by default, so dozens of parallel test threads waiting on the healing service do not
+// each hold a platform thread; -Dselfhealing.virtualThreads=false goes back to daemon platform threads.
+final class SdkExecutors {
+
+    private SdkExecutors() {
+    }
+
+    static ThreadFactory threadFactory(String name) {
+        if (SelfHealingConfig.VIRTUAL_THREADS) {
+            return Thread.ofVirtual().name(name).factory();
+        }
+        return Thread.ofPlatform().name(name).daemon(true).factory();
+    }
+
+    // One new thread per task, for the HTTP client's response handling
+    static ExecutorService perTask(String name) {
+        return Executors.newThreadPerTaskExecutor(threadFactory(name));
+    }
+
+    // At most maxThreads tasks at a time, the rest wait in the queue
+    static ExecutorService bounded(String name, int maxThreads) {
+        return Executors.newFixedThreadPool(Math.max(1, maxThreads), threadFactory(name));
+    }
+
+    static Thread start(String name, Runnable task) {
+        Thread thread = threadFactory(name).newThread(task);
+        thread.start();
+        return thread;
+    }
+}
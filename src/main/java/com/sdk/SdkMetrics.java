@@ -0,0 +1,101 @@
+package com.sdk;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Per-stage timings of the SDK: every stage feeds an in-process histogram and a JFR event.
+//
+//   SelfHealingStageEvent span = SdkMetrics.start(SdkStage.HEAL);
+//   ...
+//   SdkMetrics.end(span, selector, pageUrl, "healed");
+//
+// The p50/p99/max summary is printed at JVM shutdown (disable with -Dselfhealing.metrics.summary=false).
+public final class SdkMetrics {
+
+    private static final Map<SdkStage, LatencyHistogram> HISTOGRAMS = new EnumMap<>(SdkStage.class);
+    // Extra status lines for the summary, e.g. the circuit breaker
+    private static final Map<String, Supplier<String>> STATUS = new ConcurrentHashMap<>();
+
+    static {
+        for (SdkStage stage : SdkStage.values()) {
+            HISTOGRAMS.put(stage, new LatencyHistogram());
+        }
+        if (SelfHealingConfig.METRICS_SUMMARY_ON_EXIT) {
+            Runtime.getRuntime().addShutdownHook(new Thread(SdkMetrics::printSummary, "self-healing-metrics"));
+        }
+    }
+
+    private SdkMetrics() {
+    }
+
+    public static SelfHealingStageEvent start(SdkStage stage) {
+        SelfHealingStageEvent event = new SelfHealingStageEvent();
+        event.sdkStage = stage;
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    public static void end(SelfHealingStageEvent event, String selector, String pageUrl, String outcome) {
+        HISTOGRAMS.get(event.sdkStage).record(System.nanoTime() - event.startNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = event.sdkStage.label();
+            event.selector = selector;
+            event.pageUrl = pageUrl;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    // Adds "name: status" to the summary, replacing an earlier source with the same name
+    public static void registerStatus(String name, Supplier<String> status) {
+        STATUS.put(name, status);
+    }
+
+    public static LatencyHistogram histogram(SdkStage stage) {
+        return HISTOGRAMS.get(stage);
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+
+    // One line per stage that was hit: count, total, p50, p99, max (milliseconds)
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-14s %10s %12s %10s %10s %10s%n", "stage", "count", "total ms", "p50 ms", "p99 ms", "max ms"));
+        for (SdkStage stage : SdkStage.values()) {
+            LatencyHistogram histogram = HISTOGRAMS.get(stage);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT, "%-14s %10d %12.1f %10.3f %10.3f %10.3f%n", stage.label(), histogram.getCount(),
+                    millis(histogram.getTotalNanos()), millis(histogram.percentile(50)), millis(histogram.percentile(99)),
+                    millis(histogram.getMax())));
+        }
+        for (Map.Entry<String, Supplier<String>> status : STATUS.entrySet()) {
+            sb.append(status.getKey()).append(": ").append(status.getValue().get()).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    public static void printSummary() {
+        boolean any = false;
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            any |= histogram.getCount() > 0;
+        }
+        if (any) {
+            System.out.println("[SdkMetrics] Time spent per stage:\n" + summary());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
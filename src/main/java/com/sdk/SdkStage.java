@@ -0,0 +1,23 @@
+package com.sdk;
+
+// Timed stages of the SDK advice, see SdkMetrics
+public enum SdkStage {
+    FIND_ELEMENT("findElement"),
+    CAPTURE("capture"),
+    PAGE_CAPTURE("pageCapture"),
+    REGISTER("register"),
+    LOCAL_HEAL("localHeal"),
+    HEAL("heal"),
+    HEALED_LOOKUP("healedLookup"),
+    PREFETCH("prefetch");
+
+    private final String label;
+
+    SdkStage(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
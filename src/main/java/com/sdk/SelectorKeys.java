@@ -0,0 +1,39 @@
+package com.sdk;
+
+import org.openqa.selenium.By;
+
+// By.toString() cache keyed by By instance, for page objects and constants that reuse the same By.
+// Direct-mapped on the identity hash: a lookup is one array read and a reference compare, no lock and
+// no allocation. Colliding By instances simply overwrite each other's slot.
+final class SelectorKeys {
+
+    private static final int SLOTS = 1 << 10;
+    private static final int MASK = SLOTS - 1;
+
+    // Entries are immutable, so a racy read sees either a complete entry or another By's entry
+    private static final Entry[] TABLE = new Entry[SLOTS];
+
+    private SelectorKeys() {
+    }
+
+    static String of(By by) {
+        int slot = System.identityHashCode(by) & MASK;
+        Entry entry = TABLE[slot];
+        if (entry != null && entry.by == by) {
+            return entry.key;
+        }
+        String key = by.toString();
+        TABLE[slot] = new Entry(by, key);
+        return key;
+    }
+
+    private static final class Entry {
+        final By by;
+        final String key;
+
+        Entry(By by, String key) {
+            this.by = by;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.sdk;
+
+import org.openqa.selenium.By;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-session rewrite policy: once a broken selector has been healed and the healed selector verified,
+// later lookups go straight to the healed By instead of waiting out the implicit wait on the original first.
+// The rewrites themselves are kept per page (see Page), in the session's entry for that page: a selector
+// healed on one page is not rewritten on another, and the findElement hit path finds them through the
+// session's current page without normalizing a URL or building a key. The original is retried now and
+// then, so a fixed page demotes the rewrite again.
+public class SelectorPromotions {
+
+    private final int retryEvery;
+    private final long retryIntervalNanos;
+
+    private final AtomicLong promoted = new AtomicLong();
+    private final AtomicLong demoted = new AtomicLong();
+    private final AtomicLong promotedHits = new AtomicLong();
+
+    public static class Promotion {
+        public final String originalSelector;
+        public final String healedSelector;
+        public final By healedBy;
+        private final AtomicInteger usesSinceCheck = new AtomicInteger();
+        private volatile long lastCheckNanos;
+
+        Promotion(String originalSelector, String healedSelector, By healedBy) {
+            this.originalSelector = originalSelector;
+            this.healedSelector = healedSelector;
+            this.healedBy = healedBy;
+            this.lastCheckNanos = System.nanoTime();
+        }
+    }
+
+    // Promotions made on one page: original selector -> promotion
+    public static final class Page {
+        private final String url;
+        private final Map<String, Promotion> bySelector = new ConcurrentHashMap<>();
+
+        // url is the normalized page URL
+        Page(String url) {
+            this.url = url;
+        }
+
+        public Promotion get(String originalSelector) {
+            return bySelector.get(originalSelector);
+        }
+
+        public int size() {
+            return bySelector.size();
+        }
+    }
+
+    public SelectorPromotions() {
+        this(SelfHealingConfig.PROMOTION_RETRY_EVERY, SelfHealingConfig.PROMOTION_RETRY_INTERVAL_MS);
+    }
+
+    public SelectorPromotions(int retryEvery, long retryIntervalMs) {
+        this.retryEvery = retryEvery;
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(retryIntervalMs);
+    }
+
+    public void promote(Page page, String originalSelector, String healedSelector, By healedBy) {
+        if (healedBy == null) {
+            return;
+        }
+        Promotion previous = page.bySelector.put(originalSelector, new Promotion(originalSelector, healedSelector, healedBy));
+        if (previous == null || !previous.healedSelector.equals(healedSelector)) {
+            promoted.incrementAndGet();
+            System.out.println("[SelectorPromotions] Promoted " + originalSelector + " -> " + healedSelector + " on " + page.url);
+        }
+    }
+
+    public void demote(Page page, String originalSelector, String reason) {
+        Promotion removed = page.bySelector.remove(originalSelector);
+        if (removed != null) {
+            demoted.incrementAndGet();
+            System.out.println("[SelectorPromotions] Demoted " + originalSelector + " -> " + removed.healedSelector
+                    + " on " + page.url + ": " + reason);
+        }
+    }
+
+    // True when this lookup should try the original selector again instead of the promoted one
+    public boolean shouldRetryOriginal(Promotion promotion) {
+        boolean byCount = retryEvery > 0 && promotion.usesSinceCheck.incrementAndGet() >= retryEvery;
+        boolean byTime = retryIntervalNanos > 0 && System.nanoTime() - promotion.lastCheckNanos >= retryIntervalNanos;
+        if (byCount || byTime) {
+            promotion.usesSinceCheck.set(0);
+            promotion.lastCheckNanos = System.nanoTime();
+            return true;
+        }
+        return false;
+    }
+
+    public void recordHit() {
+        promotedHits.incrementAndGet();
+    }
+
+    public long getPromotedCount() {
+        return promoted.get();
+    }
+
+    public long getDemotedCount() {
+        return demoted.get();
+    }
+
+    public long getPromotedHitCount() {
+        return promotedHits.get();
+    }
+}
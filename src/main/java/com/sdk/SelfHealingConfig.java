@@ -0,0 +1,107 @@
+package com.sdk;
+
+// Runtime settings for the SDK. The aspect is created by the weaver with no arguments,
+// so everything is read from system properties (e.g. -Dselfhealing.baseUrl=http://host:8080).
+public final class SelfHealingConfig {
+
+    private SelfHealingConfig() {
+    }
+
+    // Healing API base URL
+    public static final String BASE_URL = System.getProperty("selfhealing.baseUrl", "http://localhost:8080");
+
+    // HTTP transport
+    public static final long HTTP_CONNECT_TIMEOUT_MS = Long.getLong("selfhealing.http.connectTimeoutMs", 2_000L);
+    public static final long HTTP_READ_TIMEOUT_MS = Long.getLong("selfhealing.http.readTimeoutMs", 10_000L);
+
+    // Request body encoding: json, smile or cbor
+    public static final String WIRE_FORMAT = System.getProperty("selfhealing.wireFormat", "json");
+    // Request bodies of at least this many bytes are sent gzip-compressed, 0 = never (default: not every
+    // service decodes Content-Encoding on requests, enable it for one that does)
+    public static final int HTTP_COMPRESS_MIN_BYTES = Integer.getInteger("selfhealing.http.compressMinBytes", 0);
+
+    // Content-addressed registrations: values of BLOB_MIN_CHARS or more are sent as sha256 references.
+    // Off by default: it costs a POST /known-blobs round trip per batch with new markup and needs a service
+    // that has the endpoint, enable it for one that does
+    public static final boolean CONTENT_ADDRESSING_ENABLED = Boolean.parseBoolean(System.getProperty("selfhealing.blobs.enabled", "false"));
+    public static final int BLOB_MIN_CHARS = Integer.getInteger("selfhealing.blobs.minChars", 1_024);
+    public static final int KNOWN_BLOBS_MAX_ENTRIES = Integer.getInteger("selfhealing.blobs.knownMaxEntries", 100_000);
+    // Attribute values (outer_html in particular) are cut to this length before sending
+    public static final int MAX_ATTRIBUTE_CHARS = Integer.getInteger("selfhealing.registration.maxAttributeChars", 64 * 1024);
+
+    // Per-call deadlines: a failing findElement waits at most HEAL_TIMEOUT_MS for the service
+    public static final long HEAL_TIMEOUT_MS = Long.getLong("selfhealing.heal.timeoutMs", 3_000L);
+    public static final long REGISTER_TIMEOUT_MS = Long.getLong("selfhealing.registration.timeoutMs", 5_000L);
+    public static final long FETCH_TIMEOUT_MS = Long.getLong("selfhealing.fetch.timeoutMs", HTTP_READ_TIMEOUT_MS);
+    // Send a second /heal-selector request when the first has not answered after this long, 0 = off
+    public static final long HEAL_HEDGE_AFTER_MS = Long.getLong("selfhealing.heal.hedgeAfterMs", 0L);
+
+    // Circuit breaker: open after N consecutive outage errors, probe GET /health while open
+    public static final boolean BREAKER_ENABLED = Boolean.parseBoolean(System.getProperty("selfhealing.breaker.enabled", "true"));
+    public static final int BREAKER_FAILURE_THRESHOLD = Integer.getInteger("selfhealing.breaker.failureThreshold", 5);
+    public static final long BREAKER_PROBE_INTERVAL_MS = Long.getLong("selfhealing.breaker.probeIntervalMs", 5_000L);
+    public static final long BREAKER_PROBE_TIMEOUT_MS = Long.getLong("selfhealing.breaker.probeTimeoutMs", 1_000L);
+
+    // Heal snapshot: record heal decisions to a file, or replay them from it with no healing API calls (record / replay)
+    public static final String SNAPSHOT_MODE = System.getProperty("selfhealing.snapshot.mode", "off");
+    public static final String SNAPSHOT_PATH = System.getProperty("selfhealing.snapshot.path", "heal-snapshot.bin");
+
+    // Fingerprints requested per page when iterating /all-fingerprints
+    public static final int FINGERPRINT_PAGE_SIZE = Integer.getInteger("selfhealing.fingerprints.pageSize", 500);
+
+    // Local heal result cache
+    public static final int HEAL_CACHE_MAX_ENTRIES = Integer.getInteger("selfhealing.healCache.maxEntries", 2_000);
+    public static final long HEAL_CACHE_TTL_MS = Long.getLong("selfhealing.healCache.ttlMs", 10 * 60_000L);
+    public static final long HEAL_CACHE_NEGATIVE_TTL_MS = Long.getLong("selfhealing.healCache.negativeTtlMs", 60_000L);
+
+    // Heal response candidates verified in the page, best first
+    public static final int HEAL_MAX_CANDIDATES = Integer.getInteger("selfhealing.heal.maxCandidates", 5);
+
+    // Cross-JVM registration journal, disabled unless a path is given
+    public static final String JOURNAL_PATH = System.getProperty("selfhealing.journal.path");
+    public static final long JOURNAL_MAX_RECORDS = Long.getLong("selfhealing.journal.maxRecords", 1L << 20);
+    // A journal record suppresses re-registration for this long
+    public static final long JOURNAL_TTL_MS = Long.getLong("selfhealing.journal.ttlMs", 7 * 24 * 3_600_000L);
+
+    // Client-side healing engine
+    public static final boolean LOCAL_HEALING_ENABLED = Boolean.parseBoolean(System.getProperty("selfhealing.localHealing.enabled", "true"));
+    public static final boolean LOCAL_HEALING_PRELOAD = Boolean.getBoolean("selfhealing.localHealing.preload");
+    public static final float LOCAL_HEAL_MIN_CONFIDENCE = Float.parseFloat(System.getProperty("selfhealing.localHealing.minConfidence", "0.6"));
+    public static final int LOCAL_HEAL_MAX_CANDIDATES = Integer.getInteger("selfhealing.localHealing.maxCandidates", 1_000);
+    // Local index bounds: elements per page, and fingerprints in total (least recently used pages dropped)
+    public static final int LOCAL_HEAL_MAX_PER_PAGE = Integer.getInteger("selfhealing.localHealing.maxPerPage", 2_000);
+    public static final int LOCAL_HEAL_MAX_FINGERPRINTS = Integer.getInteger("selfhealing.localHealing.maxFingerprints", 100_000);
+
+    // Fetch the fingerprints of a page when the driver navigates to it (WebDriver.get / navigate().to)
+    public static final boolean PREFETCH_ENABLED = Boolean.getBoolean("selfhealing.prefetch.enabled");
+    public static final int PREFETCH_THREADS = Integer.getInteger("selfhealing.prefetch.threads", 2);
+    public static final int PREFETCH_MAX_PAGES = Integer.getInteger("selfhealing.prefetch.maxPages", 200);
+    // How long a failed lookup waits for a prefetch of its page that is still running
+    public static final long PREFETCH_AWAIT_MS = Long.getLong("selfhealing.prefetch.awaitMs", 2_000L);
+
+    // Capture every interactable element of a page on its first lookup and register them in one request
+    public static final boolean PAGE_CAPTURE_ENABLED = Boolean.getBoolean("selfhealing.pageCapture.enabled");
+    public static final int PAGE_CAPTURE_MAX_ELEMENTS = Integer.getInteger("selfhealing.pageCapture.maxElements", 500);
+
+    // Healed-selector promotion: retry the original selector every N promoted lookups or after this interval
+    public static final boolean PROMOTION_ENABLED = Boolean.parseBoolean(System.getProperty("selfhealing.promotion.enabled", "true"));
+    public static final int PROMOTION_RETRY_EVERY = Integer.getInteger("selfhealing.promotion.retryEvery", 100);
+    public static final long PROMOTION_RETRY_INTERVAL_MS = Long.getLong("selfhealing.promotion.retryIntervalMs", 10 * 60_000L);
+
+    // Print per-stage latency summary (SdkMetrics) at JVM shutdown
+    public static final boolean METRICS_SUMMARY_ON_EXIT = Boolean.parseBoolean(System.getProperty("selfhealing.metrics.summary", "true"));
+
+    // Background I/O on virtual threads (false: daemon platform threads)
+    public static final boolean VIRTUAL_THREADS = Boolean.parseBoolean(System.getProperty("selfhealing.virtualThreads", "true"));
+
+    // Per-driver session state: registered selectors remembered for this many pages, and per page
+    public static final int SESSION_MAX_PAGES = Integer.getInteger("selfhealing.session.maxPages", 500);
+    public static final int SESSION_MAX_SELECTORS_PER_PAGE = Integer.getInteger("selfhealing.session.maxSelectorsPerPage", 2_000);
+
+    // Background registration pipeline
+    public static final int REGISTRATION_QUEUE_CAPACITY = Integer.getInteger("selfhealing.registration.queueCapacity", 10_000);
+    public static final int REGISTRATION_BATCH_SIZE = Integer.getInteger("selfhealing.registration.batchSize", 50);
+    public static final long REGISTRATION_LINGER_MS = Long.getLong("selfhealing.registration.lingerMs", 200L);
+    public static final int REGISTRATION_MAX_RETRIES = Integer.getInteger("selfhealing.registration.maxRetries", 3);
+    public static final long REGISTRATION_SHUTDOWN_FLUSH_MS = Long.getLong("selfhealing.registration.shutdownFlushMs", 5_000L);
+}
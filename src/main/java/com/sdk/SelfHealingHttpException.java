@@ -0,0 +1,18 @@
+package com.sdk;
+
+import java.io.IOException;
+
+// Non-2xx answer from the healing API, keeps the status code so callers can react to it
+public class SelfHealingHttpException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final int statusCode;
+
+    public SelfHealingHttpException(int statusCode) {
+        super("Failed : HTTP error code : " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
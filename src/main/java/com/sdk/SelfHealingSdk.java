@@ -1,25 +1,107 @@
 package com.sdk;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 public class SelfHealingSdk {
-    private final String baseUrl;
+    private final SelfHealingTransport transport;
+    // The transport as seen by the fingerprint iterator: breaker and fetch deadline applied
+    private final SelfHealingTransport fetchTransport;
     private final ObjectMapper objectMapper;
+    private final HealResultCache healCache;
+
+    // Null when disabled with -Dselfhealing.breaker.enabled=false
+    private final CircuitBreaker breaker;
+    private final Duration healTimeout = Duration.ofMillis(SelfHealingConfig.HEAL_TIMEOUT_MS);
+    private final Duration registerTimeout = Duration.ofMillis(SelfHealingConfig.REGISTER_TIMEOUT_MS);
+    private final Duration fetchTimeout = Duration.ofMillis(SelfHealingConfig.FETCH_TIMEOUT_MS);
+    private volatile long hedgeAfterMs = SelfHealingConfig.HEAL_HEDGE_AFTER_MS;
+    // Null unless -Dselfhealing.snapshot.mode is record or replay
+    private volatile HealSnapshot snapshot = HealSnapshot.configured();
+
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    // Readers/writers are immutable and thread-safe, build them once instead of per call
+    private final ObjectWriter requestWriter;
+    // Request bodies go out in this format (JSON after the service rejected the binary one with 415)
+    private volatile WireFormat wireFormat;
+    private final ObjectWriter binaryWriter;
+    private final ObjectReader knownBlobsReader;
+    private final ObjectReader healResponseReader;
+    private final ObjectReader fingerprintReader;
+    private final ObjectReader fingerprintListReader;
+
+    // Cleared when the service answers /page-fingerprints with 404/405
+    private volatile boolean pageEndpointSupported = true;
+
+    // Large attribute values as sha256 references; null once the service turned out to have no /known-blobs
+    private volatile BlobDeduplicator blobs;
+    private final BlobDeduplicator capper = new BlobDeduplicator();
 
     public SelfHealingSdk(String baseUrl) {
-        this.baseUrl = baseUrl;
+        this(new JdkHttpTransport(baseUrl));
+    }
+
+    public SelfHealingSdk(SelfHealingTransport transport) {
+        this(transport, WireFormat.parse(SelfHealingConfig.WIRE_FORMAT));
+    }
+
+    public SelfHealingSdk(SelfHealingTransport transport, WireFormat wireFormat) {
+        this.transport = transport;
+        this.wireFormat = wireFormat;
+        this.blobs = SelfHealingConfig.CONTENT_ADDRESSING_ENABLED ? new BlobDeduplicator() : null;
+        this.breaker = SelfHealingConfig.BREAKER_ENABLED ? new CircuitBreaker(this::probeHealth) : null;
+        this.fetchTransport = new SelfHealingTransport() {
+            @Override
+            public InputStream post(String endpoint, String contentType, byte[] body) throws IOException {
+                return guarded(endpoint, () -> transport.post(endpoint, contentType, body, fetchTimeout));
+            }
+
+            @Override
+            public InputStream get(String endpoint) throws IOException {
+                return guarded(endpoint, () -> transport.get(endpoint, fetchTimeout));
+            }
+        };
+        this.healCache = new HealResultCache();
         this.objectMapper = new ObjectMapper();
+        this.requestWriter = objectMapper.writer();
+        this.binaryWriter = wireFormat != WireFormat.JSON ? wireFormat.newMapper().writer() : requestWriter;
+        this.knownBlobsReader = objectMapper.readerFor(KnownBlobsResponse.class);
+        this.healResponseReader = objectMapper.readerFor(HealResponse.class);
+        this.fingerprintReader = objectMapper.readerFor(ElementFingerprint.class);
+        this.fingerprintListReader = objectMapper.readerFor(new TypeReference<List<ElementFingerprint>>() {
+        });
     }
 
     // Java representation of ElementFingerprint
@@ -27,6 +109,9 @@ public class SelfHealingSdk {
         public UUID id;
         public Map<String, String> attributes;
         public List<String> selectors;
+        // Attributes whose value is a "sha256:<hex>" blob reference, only set on the wire
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public List<String> blob_attributes;
     }
 
     public static class HealRequest {
@@ -38,71 +123,394 @@ public class SelfHealingSdk {
         public String healed_selector;
         public float confidence;
         public String details;
+        // Ranked alternatives, best first; older services only send healed_selector
+        public List<HealCandidate> candidates;
+    }
+
+    public static class HealCandidate {
+        public String selector;
+        public float confidence;
     }
 
     public static class RegisterRequest {
         public ElementFingerprint fingerprint;
+        // Hash -> content of the referenced blobs the service does not have yet
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public Map<String, String> blobs;
+    }
+
+    public static class BatchRegisterRequest {
+        public List<ElementFingerprint> fingerprints;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public Map<String, String> blobs;
+    }
+
+    public static class KnownBlobsRequest {
+        public List<String> hashes;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class KnownBlobsResponse {
+        public List<String> known;
+    }
+
+    // Helper method to POST a request body in the configured wire format, the caller reads and closes the
+    // response stream. The body is encoded straight to bytes, without an intermediate String.
+    private InputStream postJson(String endpoint, Object obj, Duration timeout) throws IOException {
+        return withFormatFallback(format -> {
+            byte[] body = writer(format).writeValueAsBytes(obj);
+            return guarded(endpoint, () -> transport.post(endpoint, format.contentType(), body, timeout));
+        });
+    }
+
+    private interface FormatCall {
+        InputStream run(WireFormat format) throws IOException;
     }
 
-    // Helper method to POST JSON and get response as string
-    private String postJson(String endpoint, Object obj) throws IOException {
-        URI uri = URI.create(baseUrl + endpoint);
-        URL url = uri.toURL();
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setDoOutput(true);
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
+    // Runs the call in the configured wire format, and again in JSON when the service rejects a binary one with 415
+    private InputStream withFormatFallback(FormatCall call) throws IOException {
+        WireFormat format = wireFormat;
+        try {
+            return call.run(format);
+        } catch (SelfHealingHttpException e) {
+            if (e.getStatusCode() != 415 || format == WireFormat.JSON) {
+                throw e;
+            }
+            System.err.println("[SelfHealingSdk] Service does not accept " + format.contentType() + ", sending JSON");
+            wireFormat = WireFormat.JSON;
+            return call.run(WireFormat.JSON);
+        }
+    }
+
+    private ObjectWriter writer(WireFormat format) {
+        return format == WireFormat.JSON ? requestWriter : binaryWriter;
+    }
+
+    private interface ServiceCall {
+        InputStream run() throws IOException;
+    }
 
-        String jsonRequest = objectMapper.writeValueAsString(obj);
-        try(OutputStream os = conn.getOutputStream()) {
-            os.write(jsonRequest.getBytes());
-            os.flush();
+    // One call to the service under the circuit breaker: rejected at once while it is open
+    private InputStream guarded(String endpoint, ServiceCall call) throws IOException {
+        if (breaker == null) {
+            return call.run();
         }
+        breaker.acquire(endpoint);
+        long start = System.nanoTime();
+        try {
+            InputStream in = call.run();
+            breaker.onSuccess(System.nanoTime() - start);
+            return in;
+        } catch (IOException e) {
+            breaker.onFailure(System.nanoTime() - start, e);
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onFailure(System.nanoTime() - start, new IOException(e));
+            throw e;
+        }
+    }
+
+    private void probeHealth() throws IOException {
+        discard(transport.get("/health", Duration.ofMillis(SelfHealingConfig.BREAKER_PROBE_TIMEOUT_MS)));
+    }
 
-        if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
-            throw new IOException("Failed : HTTP error code : " + conn.getResponseCode());
+    // Sends a second copy of the request when the first has not answered after hedgeAfterMs. The first
+    // successful answer wins, a late one is closed when it arrives. Both share the overall deadline.
+    private InputStream hedgedPost(String endpoint, Object request, WireFormat format, Duration timeout, long hedgeAfterMs) throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        byte[] body = writer(format).writeValueAsBytes(request);
+        String contentType = format.contentType();
+        CompletableFuture<InputStream> primary = transport.postAsync(endpoint, contentType, body, timeout);
+        try {
+            return primary.get(Math.min(hedgeAfterMs, timeout.toMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Slow, send the hedge below
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + endpoint);
         }
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader((conn.getInputStream())))) {
-            StringBuilder sb = new StringBuilder();
-            String output;
-            while ((output = br.readLine()) != null) {
-                sb.append(output);
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            closeWhenDone(primary);
+            throw new HttpTimeoutException("No answer from " + endpoint + " within " + timeout.toMillis() + " ms");
+        }
+        hedgedRequests.incrementAndGet();
+        CompletableFuture<InputStream> hedge = transport.postAsync(endpoint, contentType, body, Duration.ofNanos(remaining));
+        CompletableFuture<InputStream> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete((in, error) -> settle(first, in, error, failed, false));
+        hedge.whenComplete((in, error) -> settle(first, in, error, failed, true));
+        try {
+            return first.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            first.completeExceptionally(e);
+            throw new HttpTimeoutException("No answer from " + endpoint + " within " + timeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            first.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + endpoint);
+        }
+    }
+
+    private void settle(CompletableFuture<InputStream> first, InputStream in, Throwable error, AtomicInteger failed, boolean isHedge) {
+        if (error == null) {
+            if (first.complete(in)) {
+                if (isHedge) {
+                    hedgeWins.incrementAndGet();
+                }
+            } else {
+                closeQuietly(in);
             }
-            return sb.toString();
+        } else if (failed.incrementAndGet() == 2) {
+            first.completeExceptionally(error);
+        }
+    }
+
+    private static void closeWhenDone(CompletableFuture<InputStream> future) {
+        future.thenAccept(SelfHealingSdk::closeQuietly);
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            discard(in);
+        } catch (IOException ignored) {
+            // Losing response, nobody waits for it
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+
+    // Read the response to the end so the pooled connection can be reused
+    private static void discard(InputStream in) throws IOException {
+        try (in) {
+            in.transferTo(OutputStream.nullOutputStream());
         }
     }
 
-    // Heal selector method
+    // Heal selector method, answered from the local cache when the same selector/page was seen recently
     public HealResponse healSelector(HealRequest request) throws IOException {
-        String responseJson = postJson("/heal-selector", request);
-        return objectMapper.readValue(responseJson, HealResponse.class);
+        HealSnapshot snapshot = this.snapshot;
+        if (snapshot != null && snapshot.isReplay()) {
+            // Recorded decision or HealSnapshotMissException, never the network
+            return snapshot.replay(request);
+        }
+        String cacheKey = HealResultCache.key(request);
+        HealResponse cached = healCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        HealResponse response;
+        long hedgeAfterMs = this.hedgeAfterMs;
+        InputStream body = hedgeAfterMs > 0
+                ? withFormatFallback(format -> guarded("/heal-selector", () -> hedgedPost("/heal-selector", request, format, healTimeout, hedgeAfterMs)))
+                : postJson("/heal-selector", request, healTimeout);
+        try (InputStream in = body) {
+            response = healResponseReader.readValue(in);
+        }
+        healCache.put(cacheKey, response);
+        if (snapshot != null) {
+            snapshot.record(request, response);
+        }
+        return response;
+    }
+
+    // Called when a healed selector did not match, so the next lookup fails fast instead of asking again
+    public void reportHealFailure(HealRequest request) {
+        healCache.putNegative(HealResultCache.key(request));
+    }
+
+    // Null when no snapshot is recorded or replayed
+    public HealSnapshot getHealSnapshot() {
+        return snapshot;
+    }
+
+    // Overrides -Dselfhealing.snapshot.mode, null turns recording / replay off
+    public void setHealSnapshot(HealSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public HealResultCache getHealCache() {
+        return healCache;
+    }
+
+    // Null when the breaker is disabled
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    // Overrides -Dselfhealing.blobs.enabled
+    public void setContentAddressingEnabled(boolean enabled) {
+        if (!enabled) {
+            blobs = null;
+        } else if (blobs == null) {
+            blobs = new BlobDeduplicator();
+        }
+    }
+
+    // Overrides -Dselfhealing.heal.hedgeAfterMs, 0 turns hedging off
+    public void setHedgeAfterMs(long hedgeAfterMs) {
+        this.hedgeAfterMs = Math.max(0, hedgeAfterMs);
+    }
+
+    public long getHedgedRequestCount() {
+        return hedgedRequests.get();
+    }
+
+    // Heal requests answered by the hedge before the original request
+    public long getHedgeWinCount() {
+        return hedgeWins.get();
     }
 
     // Register fingerprint method
     public void registerFingerprint(RegisterRequest request) throws IOException {
-        postJson("/register-fingerprint", request);
+        Upload upload = prepareUpload(List.of(request.fingerprint));
+        RegisterRequest wire = new RegisterRequest();
+        wire.fingerprint = upload.fingerprints.get(0);
+        wire.blobs = upload.missingBlobs;
+        discard(postJson("/register-fingerprint", wire, registerTimeout));
+        upload.sent();
     }
 
-    // Fetch all fingerprints (GET request)
-    public List<ElementFingerprint> getAllFingerprints() throws IOException {
-        URI uri = URI.create(baseUrl + "/all-fingerprints");
-        URL url = uri.toURL();
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
+    // Register several fingerprints in one request (used by the background registration queue)
+    public void registerFingerprints(List<ElementFingerprint> fingerprints) throws IOException {
+        Upload upload = prepareUpload(fingerprints);
+        BatchRegisterRequest request = new BatchRegisterRequest();
+        request.fingerprints = upload.fingerprints;
+        request.blobs = upload.missingBlobs;
+        discard(postJson("/register-fingerprints", request, registerTimeout));
+        upload.sent();
+    }
+
+    // Fingerprints as they go on the wire, plus the blob contents the service still needs
+    private static final class Upload {
+        final List<ElementFingerprint> fingerprints;
+        final Map<String, String> missingBlobs;
+        final BlobDeduplicator.Prepared prepared;
+        final BlobDeduplicator dedup;
 
-        if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
-            throw new IOException("Failed : HTTP error code : " + conn.getResponseCode());
+        Upload(List<ElementFingerprint> fingerprints, Map<String, String> missingBlobs,
+               BlobDeduplicator.Prepared prepared, BlobDeduplicator dedup) {
+            this.fingerprints = fingerprints;
+            this.missingBlobs = missingBlobs;
+            this.prepared = prepared;
+            this.dedup = dedup;
         }
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader((conn.getInputStream())))) {
-            StringBuilder sb = new StringBuilder();
-            String output;
-            while ((output = br.readLine()) != null) {
-                sb.append(output);
+        // After a successful registration every referenced blob is stored by the service
+        void sent() {
+            if (dedup != null) {
+                dedup.markKnown(prepared.blobs.keySet());
+                dedup.recordUpload(prepared, missingBlobs != null ? missingBlobs : Map.of());
             }
-            return objectMapper.readValue(sb.toString(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, ElementFingerprint.class));
         }
     }
+
+    // Replaces large values by blob references and asks the service (POST /known-blobs) which of the
+    // referenced blobs it already has, so only the others are included. One round trip per batch, none
+    // when every hash is already known locally. Services without the endpoint get capped full values.
+    private Upload prepareUpload(List<ElementFingerprint> fingerprints) throws IOException {
+        BlobDeduplicator dedup = blobs;
+        if (dedup != null) {
+            BlobDeduplicator.Prepared prepared = dedup.prepare(fingerprints);
+            if (prepared.blobs.isEmpty()) {
+                return new Upload(prepared.fingerprints, null, prepared, dedup);
+            }
+            List<String> unknown = dedup.unknown(prepared.blobs.keySet());
+            if (unknown.isEmpty()) {
+                return new Upload(prepared.fingerprints, null, prepared, dedup);
+            }
+            try {
+                KnownBlobsRequest request = new KnownBlobsRequest();
+                request.hashes = unknown;
+                KnownBlobsResponse response;
+                try (InputStream in = postJson("/known-blobs", request, registerTimeout)) {
+                    response = knownBlobsReader.readValue(in);
+                }
+                if (response != null && response.known != null) {
+                    dedup.markKnown(response.known);
+                    unknown.removeAll(response.known);
+                }
+                Map<String, String> missing = new HashMap<>();
+                for (String hash : unknown) {
+                    missing.put(hash, prepared.blobs.get(hash));
+                }
+                return new Upload(prepared.fingerprints, missing.isEmpty() ? null : missing, prepared, dedup);
+            } catch (SelfHealingHttpException e) {
+                if (e.getStatusCode() != 404 && e.getStatusCode() != 405) {
+                    throw e;
+                }
+                System.err.println("[SelfHealingSdk] Blob endpoint not available, registering full attribute values");
+                blobs = null;
+            }
+        }
+        return new Upload(capper.capAll(fingerprints), null, null, null);
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    // Null when content addressing is disabled or not supported by the service
+    BlobDeduplicator getBlobDeduplicator() {
+        return blobs;
+    }
+
+    // Fetch all fingerprints (GET request, follows pagination cursors)
+    public List<ElementFingerprint> getAllFingerprints() throws IOException {
+        List<ElementFingerprint> fingerprints = new ArrayList<>();
+        try (FingerprintIterator it = iterateFingerprints(null)) {
+            it.forEachRemaining(fingerprints::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return fingerprints;
+    }
+
+    // Fingerprints of one page (GET /page-fingerprints?page_url=...), used to prefetch on navigation.
+    // Falls back to the filtered /all-fingerprints walk when the service has no page endpoint.
+    public List<ElementFingerprint> getFingerprintsForPage(String pageUrl) throws IOException {
+        if (pageEndpointSupported) {
+            try (InputStream in = fetchTransport.get("/page-fingerprints?page_url=" + URLEncoder.encode(pageUrl, StandardCharsets.UTF_8))) {
+                List<ElementFingerprint> fingerprints = fingerprintListReader.readValue(in);
+                return fingerprints != null ? fingerprints : new ArrayList<>();
+            } catch (SelfHealingHttpException e) {
+                if (e.getStatusCode() != 404 && e.getStatusCode() != 405) {
+                    throw e;
+                }
+                System.err.println("[SelfHealingSdk] Page endpoint not available, filtering /all-fingerprints instead");
+                pageEndpointSupported = false;
+            }
+        }
+        List<ElementFingerprint> fingerprints = new ArrayList<>();
+        try (FingerprintIterator it = iterateFingerprints(pageUrl)) {
+            it.forEachRemaining(fingerprints::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return fingerprints;
+    }
+
+    // Lazily iterate fingerprints, optionally only those of one page. Close it when stopping early.
+    public FingerprintIterator iterateFingerprints(String pageUrl) {
+        return new FingerprintIterator(fetchTransport, objectMapper.getFactory(), fingerprintReader, pageUrl,
+                SelfHealingConfig.FINGERPRINT_PAGE_SIZE);
+    }
+
+    // Same as iterateFingerprints as a Stream, use it in try-with-resources so the connection is released
+    public Stream<ElementFingerprint> streamFingerprints(String pageUrl) {
+        FingerprintIterator it = iterateFingerprints(pageUrl);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(it::close);
+    }
 }
@@ -5,76 +5,240 @@ import org.aspectj.lang.annotation.*;
 import org.aspectj.lang.*;
 import org.openqa.selenium.NoSuchElementException;
 
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.*;
-import java.util.UUID;
 
 // Aspect to intercept Selenium WebDriver.findElement(By) calls
 @Aspect
 public class SelfHealingSeleniumAspect {
 
-    private final SelfHealingSdk sdk;
+    // Keys always present on fingerprints of healed elements, empty when the element lacks them
+    private static final String[] HEALED_ELEMENT_KEYS = {"id", "name", "class", "aria-label", "placeholder", "type"};
 
-    // Cache to avoid duplicate registrations per selector per session
-    private final Set<String> registeredSelectors = Collections.synchronizedSet(new HashSet<>());
+    // By.toString() form, e.g. "By.id: username"
+    private static final Pattern SELECTOR_PATTERN = Pattern.compile("By\\.(\\w+): (.+)");
+    private static final String CSS_PREFIX = "By.cssSelector: ";
+    private static final String XPATH_PREFIX = "By.xpath: ";
+
+    // Replaced together by connect()
+    private volatile SelfHealingSdk sdk;
+
+    // Registrations are sent in batches by a background worker, off the findElement path
+    private volatile FingerprintRegistrationQueue registrationQueue;
+
+    // Tried before the remote healing API, null when disabled
+    private final LocalHealingEngine localHealingEngine;
+
+    // Optional on-disk journal shared with other JVMs on this machine, null when not configured
+    private final RegistrationJournal journal;
+
+    // Registered selectors, promotions and prefetcher of each driver, removed when the driver quits
+    private final Map<WebDriver, SessionState> sessions = new ConcurrentHashMap<>();
+
+    // Last driver used by each thread and its session, so the hit path does not touch the shared map.
+    // Also how Navigation.to(), whose target is not the driver, finds the session.
+    private final ThreadLocal<DriverSession> lastSession = new ThreadLocal<>();
+
+    private final AtomicLong sessionsOpened = new AtomicLong();
+    private final AtomicLong sessionsReleased = new AtomicLong();
+
+    // One-pass page capture on the first lookup of each page (-Dselfhealing.pageCapture.enabled=true)
+    private volatile boolean pageCaptureEnabled = SelfHealingConfig.PAGE_CAPTURE_ENABLED;
+    private final AtomicLong pageCaptures = new AtomicLong();
+
+    // Navigation prefetch, null when disabled (-Dselfhealing.prefetch.enabled=true)
+    private final ExecutorService prefetchExecutor;
 
     public SelfHealingSeleniumAspect() {
         System.out.println("------------------------------------------------- in constructor");
-        this.sdk = new SelfHealingSdk("http://localhost:8080"); // Adjust your healing API base URL
+        this.sdk = new SelfHealingSdk(SelfHealingConfig.BASE_URL); // Adjust with -Dselfhealing.baseUrl
+        this.registrationQueue = new FingerprintRegistrationQueue(sdk);
+        if (sdk.getCircuitBreaker() != null) {
+            SdkMetrics.registerStatus("healing service", sdk.getCircuitBreaker()::toString);
+        }
+        this.journal = RegistrationJournal.fromConfig();
+        this.localHealingEngine = SelfHealingConfig.LOCAL_HEALING_ENABLED ? new LocalHealingEngine() : null;
+        HealSnapshot snapshot = sdk.getHealSnapshot();
+        if (snapshot != null) {
+            SdkMetrics.registerStatus("heal snapshot", snapshot::toString);
+        }
+        // Replaying a heal snapshot is offline: no prefetch, preload or registration
+        boolean replay = snapshot != null && snapshot.isReplay();
+        this.prefetchExecutor = SelfHealingConfig.PREFETCH_ENABLED && !replay
+                ? SdkExecutors.bounded("self-healing-prefetch", SelfHealingConfig.PREFETCH_THREADS)
+                : null;
+        SdkMetrics.registerStatus("driver sessions", () -> "open=" + sessions.size()
+                + " opened=" + sessionsOpened.get() + " released=" + sessionsReleased.get());
+        if (localHealingEngine != null && SelfHealingConfig.LOCAL_HEALING_PRELOAD && !replay) {
+            SdkExecutors.start("self-healing-preload", this::preloadFingerprints);
+        }
+    }
+
+    // Breaker state, hedging counters and heal cache of the aspect's client,
+    // e.g. Aspects.aspectOf(SelfHealingSeleniumAspect.class).getSdk().getCircuitBreaker().getState()
+    public SelfHealingSdk getSdk() {
+        return sdk;
+    }
+
+    // Points the aspect at another healing service client, e.g. one for a stub server in tests and the load
+    // harness. Registrations still queued for the previous client are flushed to it first. Returns that client.
+    synchronized SelfHealingSdk connect(SelfHealingSdk sdk) {
+        SelfHealingSdk previous = this.sdk;
+        FingerprintRegistrationQueue previousQueue = registrationQueue;
+        this.sdk = sdk;
+        this.registrationQueue = new FingerprintRegistrationQueue(sdk);
+        previousQueue.close();
+        return previous;
+    }
+
+    // Fill the local index with everything the healing service already knows
+    private void preloadFingerprints() {
+        try {
+            // Streamed one fingerprint at a time. The index keeps at most selfhealing.localHealing.maxFingerprints
+            // of them (least recently used pages dropped), so a store larger than that only fills the index.
+            try (FingerprintIterator fingerprints = sdk.iterateFingerprints(null)) {
+                localHealingEngine.indexAll(fingerprints);
+            }
+            System.out.println("[SelfHealingSeleniumAspect] Preloaded " + localHealingEngine.getIndexedCount() + " fingerprints, "
+                    + localHealingEngine.size() + " kept in the local index");
+        } catch (Exception e) {
+            System.err.println("[SelfHealingSeleniumAspect] Fingerprint preload failed: " + e.getMessage());
+        }
+    }
+
+    // Track the session's page and start fetching its fingerprints while the browser is still loading it
+    @Before("execution(* org.openqa.selenium.WebDriver.get(String)) && args(url) && target(driver)")
+    public void prefetchOnGet(WebDriver driver, String url) {
+        SessionState session = sessionFor(driver);
+        session.enterPage(url);
+        if (prefetchExecutor != null) {
+            prefetcherFor(session).prefetch(url);
+        }
+    }
+
+    // RemoteWebDriver's navigate().to() ends up in get() as well, the prefetcher ignores the second request
+    @Before("execution(* org.openqa.selenium.WebDriver.Navigation.to(String)) && args(url)")
+    public void prefetchOnNavigate(String url) {
+        DriverSession last = lastSession.get();
+        if (last == null || last.session.isReleased()) {
+            return;
+        }
+        last.session.enterPage(url);
+        if (prefetchExecutor != null) {
+            prefetcherFor(last.session).prefetch(url);
+        }
+    }
+
+    @Before("execution(* org.openqa.selenium.WebDriver.Navigation.to(java.net.URL)) && args(url)")
+    public void prefetchOnNavigateToUrl(java.net.URL url) {
+        prefetchOnNavigate(String.valueOf(url));
+    }
+
+    // Navigations the aspect cannot follow by URL (links, form submits, history): the session's page is
+    // re-read from the driver at its next lookup, instead of counting the old page's selectors as registered
+    @AfterReturning("execution(void org.openqa.selenium.WebElement.click()) || execution(void org.openqa.selenium.WebElement.submit())"
+            + " || execution(void org.openqa.selenium.WebDriver.Navigation.back()) || execution(void org.openqa.selenium.WebDriver.Navigation.forward())"
+            + " || execution(void org.openqa.selenium.WebDriver.Navigation.refresh())")
+    public void pageMayHaveChanged() {
+        DriverSession last = lastSession.get();
+        if (last != null && !last.session.isReleased()) {
+            last.session.markPageUnverified();
+        }
+    }
+
+    // Drop the session's tables when the driver quits, also when quit() throws
+    @After("execution(* org.openqa.selenium.WebDriver.quit()) && target(driver)")
+    public void releaseOnQuit(WebDriver driver) {
+        SessionState session = sessions.remove(driver);
+        if (session != null) {
+            session.release();
+            sessionsReleased.incrementAndGet();
+        }
+        DriverSession last = lastSession.get();
+        if (last != null && last.driver.get() == driver) {
+            lastSession.remove();
+        }
     }
 
     @Around("execution(* org.openqa.selenium.WebDriver.findElement(org.openqa.selenium.By)) && args(by)")
     public Object findElementWithHealingAndRegister(ProceedingJoinPoint pjp, By by) throws Throwable {
         WebDriver driver = (WebDriver) pjp.getTarget();
-        String selector = by.toString();
+        String selector = SelectorKeys.of(by);
+        SessionState session = sessionFor(driver);
+        if (session.isPageUnverified()) {
+            // A click may have navigated: registrations and promotions of the page the driver is really on
+            session.enterPage(driver.getCurrentUrl());
+        }
+
+        // Selector healed earlier in this session on this page: go straight to the healed By, skipping the implicit wait
+        SelectorPromotions promotions = session.promotions;
+        SelectorPromotions.Page promotedPage = promotions != null ? session.currentPromotions() : null;
+        SelectorPromotions.Promotion promotion = promotedPage != null ? promotedPage.get(selector) : null;
+        if (promotion != null && !promotions.shouldRetryOriginal(promotion)) {
+            try {
+                WebElement element = proceedTimed(pjp, new Object[]{promotion.healedBy}, SdkStage.HEALED_LOOKUP, promotion.healedSelector);
+                promotions.recordHit();
+                return element;
+            } catch (NoSuchElementException nse) {
+                promotions.demote(promotedPage, selector, "healed selector no longer matches");
+                promotion = null;
+            }
+        }
 
         try {
             // Try normal findElement first
-            WebElement element = (WebElement) pjp.proceed();
+            WebElement element = proceedTimed(pjp, null, SdkStage.FIND_ELEMENT, selector);
+            if (promotion != null) {
+                promotions.demote(promotedPage, selector, "original selector works again");
+            }
 
             // Register the element if not already registered
-            if (!registeredSelectors.contains(selector)) {
+            if (!session.isRegistered(selector) && !replaying()) {
                 try {
-                    JavascriptExecutor js = (JavascriptExecutor) driver;
-                    // Execute JavaScript to get all attributes
-                    Object object = js.executeScript("var items = {}; for (index = 0; index < arguments[0].attributes.length; ++index) { items[arguments[0].attributes[index].name] = arguments[0].attributes[index].value }; return items;", element);
-                    Map<String, String> attributes = new HashMap<>();
-                    if(object instanceof Map) {
-                        attributes.putAll((Map<String, String>) object);
+                    // First lookup on this page: the whole page in one script and one bulk registration
+                    if (pageCaptureEnabled && !session.isPageCaptured() && capturePage(session, driver, element, selector)) {
+                        return element;
                     }
 
-                    String pageUrl = driver.getCurrentUrl();
-                    String tagName = element.getTagName();
-                    String text = element.getText();
-                    String elementOuterHtml = element.getAttribute("outerHTML");
-
-                    attributes.put("page_url", pageUrl);
-                    attributes.put("tag_name", tagName);
-                    attributes.put("text", text != null ? text : "");
-                    attributes.put("outer_html", elementOuterHtml);
-
-                    // Save multiple selectors for healing fallback strategy
-                    List<String> selectors = new ArrayList<>();
-                    String cssSelector = extractCssSelectorFromBy(by);
-                    String xpathSelector = extractXPathSelectorFromBy(by);
-                    if ((cssSelector != null) && !cssSelector.isEmpty() && !selectors.contains("css: " + cssSelector)) {
-                        selectors.add("css: " + cssSelector);
+                    // Attributes, tag, text, URL, outerHTML and bounding box in one round trip
+                    Map<String, String> attributes = captureTimed(driver, element, selector);
+                    String pageUrl = attributes.get("page_url");
+                    session.enterPage(pageUrl);
+                    if (isRegistered(session, selector, attributes)) {
+                        // Known on the page the capture found the driver on, or unchanged since another JVM registered it
+                        return element;
                     }
-                    if ((xpathSelector != null) && !xpathSelector.isEmpty() && !selectors.contains("xpath: " + xpathSelector)) {
-                        selectors.add("xpath: " + xpathSelector);
+                    // A click led to a page that was not captured yet
+                    if (pageCaptureEnabled && !session.isPageCaptured() && capturePage(session, driver, element, selector)) {
+                        return element;
                     }
+                    if (prefetchExecutor != null) {
+                        // Page reached without get() (e.g. a click): fetch it now for the next selectors on it
+                        prefetcherFor(session).prefetch(pageUrl);
+                    }
+
+                    // Save multiple selectors for healing fallback strategy (a By is either CSS or XPath, never both)
+                    List<String> selectors = storedSelectors(selector);
 
                     //Here I will implement GenAI to fetch all possible selector for this web element and I will save all the selectors in database
 
                     SelfHealingSdk.ElementFingerprint fp = new SelfHealingSdk.ElementFingerprint();
-                    fp.id = UUID.randomUUID();
+                    fp.id = FingerprintIds.next();
                     fp.attributes = attributes;
                     fp.selectors = selectors;
 
-                    SelfHealingSdk.RegisterRequest request = new SelfHealingSdk.RegisterRequest();
-                    request.fingerprint = fp;
-                    sdk.registerFingerprint(request);
-                    registeredSelectors.add(selector);
+                    boolean queued = registrationQueue.submit(fp, journalOnSent(List.of(session.journalKey(selector)), List.of(fp)));
+                    if (localHealingEngine != null) {
+                        localHealingEngine.index(fp, selector);
+                    }
+                    // Dropped by a full queue: not registered, the next lookup tries again
+                    if (queued) {
+                        markRegistered(session, selector, attributes);
+                    }
                 } catch (Exception e) {
                     System.err.println("[SelfHealingSeleniumAspect] Registration failed: " + e.fillInStackTrace());
                 }
@@ -83,84 +247,353 @@ public class SelfHealingSeleniumAspect {
             return element;
 
         } catch (NoSuchElementException e) {
+            // Periodic retry of a promoted selector's original failed: keep using the promotion
+            if (promotion != null) {
+                try {
+                    WebElement element = proceedTimed(pjp, new Object[]{promotion.healedBy}, SdkStage.HEALED_LOOKUP, promotion.healedSelector);
+                    promotions.recordHit();
+                    return element;
+                } catch (NoSuchElementException nse) {
+                    promotions.demote(promotedPage, selector, "healed selector no longer matches");
+                }
+            }
+
+            String pageUrl = driver.getCurrentUrl();
+            // Also catches up with a navigation by click, so the promotion below is made for the right page
+            session.enterPage(pageUrl);
+
+            // A prefetch of this page may still be running, finishing it is cheaper than a cold heal request
+            if (prefetchExecutor != null) {
+                prefetcherFor(session).await(pageUrl, SelfHealingConfig.PREFETCH_AWAIT_MS);
+            }
+
+            // Try the local engine first, it needs a single DOM snapshot and no healing API call.
+            // Not while replaying a heal snapshot, the recorded decisions are the answer.
+            if (localHealingEngine != null && !replaying()) {
+                SelfHealingStageEvent span = SdkMetrics.start(SdkStage.LOCAL_HEAL);
+                String outcome = "error";
+                try {
+                    LocalHealingEngine.LocalHealResult local = localHealingEngine.heal(driver, selector, pageUrl);
+                    outcome = local == null ? "unknown" : "low_confidence";
+                    if (local != null && local.confidence >= SelfHealingConfig.LOCAL_HEAL_MIN_CONFIDENCE) {
+                        outcome = "healed";
+                        System.out.println("[SelfHealingSeleniumAspect] Healed selector used (local, " + local.confidence + "): " + local.healedSelector);
+                        HealSnapshot snapshot = sdk.getHealSnapshot();
+                        if (snapshot != null) {
+                            snapshot.record(selector, pageUrl, local.healedSelector, local.confidence);
+                        }
+                        registerHealedElement(session, driver, local.element, local.healedSelector, selector);
+                        if (promotions != null) {
+                            promotions.promote(session.promotionsOf(pageUrl), selector, local.healedSelector, parseSelectorString(local.healedSelector));
+                        }
+                        return local.element;
+                    }
+                } catch (Exception ex) {
+                    System.err.println("[SelfHealingSeleniumAspect] Local healing failed: " + ex.getMessage());
+                } finally {
+                    SdkMetrics.end(span, selector, pageUrl, outcome);
+                }
+            }
+
             // On failure, attempt healing
             SelfHealingSdk.HealRequest healRequest = new SelfHealingSdk.HealRequest();
             healRequest.failed_selector = selector;
-            Map<String, String> context = new HashMap<>();
-            context.put("page_url", driver.getCurrentUrl());
-            healRequest.context = context;
+            healRequest.context = Collections.singletonMap("page_url", pageUrl);
 
             SelfHealingSdk.HealResponse response;
+            List<SelfHealingSdk.HealCandidate> candidates;
+            SelfHealingStageEvent healSpan = SdkMetrics.start(SdkStage.HEAL);
             try {
                 response = sdk.healSelector(healRequest);
+                candidates = CandidateVerifier.candidates(response, SelfHealingConfig.HEAL_MAX_CANDIDATES);
+                SdkMetrics.end(healSpan, selector, pageUrl, candidates.isEmpty() ? "unhealable" : "healed");
+            } catch (CircuitOpenException ex) {
+                // Service known to be down: fail as fast as an unhealed lookup, no network wait
+                SdkMetrics.end(healSpan, selector, pageUrl, "circuit_open");
+                throw e;
+            } catch (HealSnapshotMissException ex) {
+                // Replay mode, reported by the snapshot
+                SdkMetrics.end(healSpan, selector, pageUrl, "snapshot_miss");
+                throw e;
             } catch (Exception ex) {
+                SdkMetrics.end(healSpan, selector, pageUrl, "error");
                 System.err.println("[SelfHealingSeleniumAspect] Healing API call failed: " + ex.getMessage());
                 throw e; //  propagate original exception
             }
-            if (response != null && response.healed_selector != null && !response.healed_selector.isEmpty()) {
-                By healedBy = parseSelectorString(response.healed_selector);
-                if (healedBy != null) {
-                    try {
-                        WebElement healedElement = driver.findElement(healedBy);
-
-                        System.out.println("[SelfHealingSeleniumAspect] Healed selector used: " + response.healed_selector);
+            if (!candidates.isEmpty()) {
+                // All candidates checked in one script call, the best unique and visible match wins
+                SelfHealingStageEvent lookupSpan = SdkMetrics.start(SdkStage.HEALED_LOOKUP);
+                CandidateVerifier.VerifiedCandidate verified = null;
+                try {
+                    verified = CandidateVerifier.verify(driver, candidates);
+                } catch (Exception ex) {
+                    System.err.println("[SelfHealingSeleniumAspect] Verifying healed selectors failed: " + ex.getMessage());
+                }
+                if (verified != null) {
+                    SdkMetrics.end(lookupSpan, verified.selector, pageUrl, "found");
+                    System.out.println("[SelfHealingSeleniumAspect] Healed selector used: " + verified.selector
+                            + (candidates.size() > 1 ? " (" + verified.confidence + ", best of " + candidates.size() + ")" : ""));
+                    registerHealedElement(session, driver, verified.element, verified.selector, selector);
+                    if (promotions != null) {
+                        promotions.promote(session.promotionsOf(pageUrl), selector, verified.selector, verified.by);
+                    }
+                    return verified.element;
+                }
+                SdkMetrics.end(lookupSpan, candidates.get(0).selector, pageUrl, "not_found");
+                System.err.println("[SelfHealingSeleniumAspect] No healed selector matched a unique visible element: " + candidates.get(0).selector
+                        + (candidates.size() > 1 ? " and " + (candidates.size() - 1) + " more" : ""));
+                sdk.reportHealFailure(healRequest);
+            }
 
-                        // Register healed element if new
-                        if (!registeredSelectors.contains(response.healed_selector)) {
-                            try {
-                                String pageUrl = driver.getCurrentUrl();
-                                String tagName = healedElement.getTagName();
-                                String text = healedElement.getText();
-                                String id = healedElement.getAttribute("id");
-                                String name = healedElement.getAttribute("name");
-                                String classes = healedElement.getAttribute("class");
-                                String ariaLabel = healedElement.getAttribute("aria-label");
-                                String placeholder = healedElement.getAttribute("placeholder");
-                                String type = healedElement.getAttribute("type");
-
-                                Map<String, String> attributes = new HashMap<>();
-                                attributes.put("page_url", pageUrl);
-                                attributes.put("tag_name", tagName);
-                                attributes.put("text", text != null ? text : "");
-                                attributes.put("id", id != null ? id : "");
-                                attributes.put("name", name != null ? name : "");
-                                attributes.put("class", classes != null ? classes : "");
-                                attributes.put("aria-label", ariaLabel != null ? ariaLabel : "");
-                                attributes.put("placeholder", placeholder != null ? placeholder : "");
-                                attributes.put("type", type != null ? type : "");
-
-                                List<String> selectors = new ArrayList<>();
-                                selectors.add(response.healed_selector);
-
-                                SelfHealingSdk.ElementFingerprint fp = new SelfHealingSdk.ElementFingerprint();
-                                fp.id = UUID.randomUUID();
-                                fp.attributes = attributes;
-                                fp.selectors = selectors;
-
-                                SelfHealingSdk.RegisterRequest req = new SelfHealingSdk.RegisterRequest();
-                                req.fingerprint = fp;
-                                sdk.registerFingerprint(req);
-
-                                registeredSelectors.add(response.healed_selector);
-                            } catch (Exception ex) {
-                                System.err.println("[SelfHealingSeleniumAspect] Registration of healed selector failed: " + ex.getMessage());
-                            }
-                        }
+            // Healing failed or no healed selector, throw original
+            throw e;
+        }
+    }
 
-                        return healedElement;
+    // Stored form of a By.toString() selector: "css: ..." or "xpath: ...", nothing for the other By types
+    private static List<String> storedSelectors(String selector) {
+        String cssSelector = extractCssSelector(selector);
+        if (cssSelector != null && !cssSelector.isEmpty()) {
+            return List.of("css: " + cssSelector);
+        }
+        String xpathSelector = extractXPathSelector(selector);
+        if (xpathSelector != null && !xpathSelector.isEmpty()) {
+            return List.of("xpath: " + xpathSelector);
+        }
+        return List.of();
+    }
 
-                    } catch (NoSuchElementException nse) {
-                        System.err.println("[SelfHealingSeleniumAspect] Healing selector did not find element: " + response.healed_selector);
-                    }
+    // Captures every interactable element of the driver's page in one script and queues them as one bulk
+    // registration, unless that page was captured before. Returns false when the looked-up element is not
+    // among the captured ones (or the driver cannot run the script), the caller then captures it alone.
+    private boolean capturePage(SessionState session, WebDriver driver, WebElement element, String selector) {
+        SelfHealingStageEvent span = SdkMetrics.start(SdkStage.PAGE_CAPTURE);
+        PageCapture.Result page = null;
+        try {
+            page = PageCapture.capture(driver, element, SelfHealingConfig.PAGE_CAPTURE_MAX_ELEMENTS);
+        } finally {
+            SdkMetrics.end(span, selector, page != null ? page.pageUrl : null, page != null ? "captured " + page.fingerprints.size() : "error");
+        }
+        if (page == null) {
+            return false;
+        }
+        session.enterPage(page.pageUrl);
+        SelfHealingSdk.ElementFingerprint found = page.current >= 0 ? page.fingerprints.get(page.current) : null;
+        if (found != null) {
+            for (String stored : storedSelectors(selector)) {
+                if (!found.selectors.contains(stored)) {
+                    found.selectors.add(stored);
                 }
             }
+        }
+        if (!session.isPageCaptured()) {
+            // Elements another JVM or an earlier run registered with the same content are not sent again
+            List<String> journalKeys = new ArrayList<>();
+            List<SelfHealingSdk.ElementFingerprint> unsent = new ArrayList<>();
+            for (SelfHealingSdk.ElementFingerprint fingerprint : page.fingerprints) {
+                String key = fingerprint == found ? session.journalKey(selector)
+                        : fingerprint.selectors.isEmpty() ? null : session.journalKey(fingerprint.selectors.get(0));
+                if (journal == null || key == null || !journal.contains(key, fingerprint.attributes)) {
+                    journalKeys.add(key);
+                    unsent.add(fingerprint);
+                }
+            }
+            if (!registrationQueue.submitAll(unsent, journalOnSent(journalKeys, unsent))) {
+                // Dropped by a full queue: the page stays uncaptured and is tried again by its next lookup
+                return false;
+            }
+            session.markPageCaptured(page.pageUrl);
+            pageCaptures.incrementAndGet();
+            for (SelfHealingSdk.ElementFingerprint fingerprint : page.fingerprints) {
+                if (localHealingEngine != null) {
+                    localHealingEngine.index(fingerprint, fingerprint == found ? selector : null);
+                }
+                markKnownSelectors(session, fingerprint);
+            }
+        }
+        if (found == null) {
+            return false;
+        }
+        markRegistered(session, selector, found.attributes);
+        return true;
+    }
 
-            // Healing failed or no healed selector, throw original
+    // Heal snapshot replay: heals answered from the snapshot file, nothing registered or fetched
+    private boolean replaying() {
+        HealSnapshot snapshot = sdk.getHealSnapshot();
+        return snapshot != null && snapshot.isReplay();
+    }
+
+    // Enables or disables the page capture at runtime, overriding -Dselfhealing.pageCapture.enabled
+    public void setPageCaptureEnabled(boolean enabled) {
+        this.pageCaptureEnabled = enabled;
+    }
+
+    public long getPageCaptureCount() {
+        return pageCaptures.get();
+    }
+
+    // Register healed element if new
+    private void registerHealedElement(SessionState session, WebDriver driver, WebElement healedElement, String healedSelector, String failedSelector) {
+        if (session.isRegistered(healedSelector) || replaying()) {
+            return;
+        }
+        try {
+            Map<String, String> attributes = captureTimed(driver, healedElement, healedSelector);
+            session.enterPage(attributes.get("page_url"));
+            for (String name : HEALED_ELEMENT_KEYS) {
+                attributes.putIfAbsent(name, "");
+            }
+            if (isRegistered(session, healedSelector, attributes)) {
+                return;
+            }
+
+            SelfHealingSdk.ElementFingerprint fp = new SelfHealingSdk.ElementFingerprint();
+            fp.id = FingerprintIds.next();
+            fp.attributes = attributes;
+            fp.selectors = List.of(healedSelector);
+
+            boolean queued = registrationQueue.submit(fp, journalOnSent(List.of(session.journalKey(healedSelector)), List.of(fp)));
+            if (localHealingEngine != null) {
+                // The failed selector now resolves locally to the healed element's fingerprint
+                localHealingEngine.index(fp, failedSelector);
+            }
+            if (queued) {
+                markRegistered(session, healedSelector, attributes);
+            }
+        } catch (Exception ex) {
+            System.err.println("[SelfHealingSeleniumAspect] Registration of healed selector failed: " + ex.getMessage());
+        }
+    }
+
+    // pjp.proceed() (or with replaced arguments) timed as the given stage
+    private static WebElement proceedTimed(ProceedingJoinPoint pjp, Object[] args, SdkStage stage, String selector) throws Throwable {
+        SelfHealingStageEvent span = SdkMetrics.start(stage);
+        String outcome = "error";
+        try {
+            WebElement element = (WebElement) (args == null ? pjp.proceed() : pjp.proceed(args));
+            outcome = "found";
+            return element;
+        } catch (NoSuchElementException e) {
+            outcome = "not_found";
             throw e;
+        } finally {
+            SdkMetrics.end(span, selector, null, outcome);
         }
     }
 
+    private static Map<String, String> captureTimed(WebDriver driver, WebElement element, String selector) {
+        SelfHealingStageEvent span = SdkMetrics.start(SdkStage.CAPTURE);
+        Map<String, String> attributes = null;
+        try {
+            attributes = ElementCapture.capture(driver, element);
+            return attributes;
+        } finally {
+            SdkMetrics.end(span, selector, attributes != null ? attributes.get("page_url") : null, attributes != null ? "captured" : "error");
+        }
+    }
 
+    // Session of the driver, created on its first advised call
+    SessionState sessionFor(WebDriver driver) {
+        DriverSession last = lastSession.get();
+        if (last != null && last.driver.get() == driver && !last.session.isReleased()) {
+            return last.session;
+        }
+        SessionState session = sessions.get(driver);
+        if (session == null) {
+            session = sessions.computeIfAbsent(driver, d -> {
+                sessionsOpened.incrementAndGet();
+                return new SessionState();
+            });
+        }
+        lastSession.set(new DriverSession(driver, session));
+        return session;
+    }
+
+    // Sessions of drivers that have not quit yet
+    int openSessionCount() {
+        return sessions.size();
+    }
+
+    private PagePrefetcher prefetcherFor(SessionState session) {
+        return session.prefetcher(sdk, prefetchExecutor, fingerprint -> acceptPrefetched(session, fingerprint));
+    }
+
+    // Prefetched fingerprints feed the local healing index and the session's registration dedupe
+    private void acceptPrefetched(SessionState session, SelfHealingSdk.ElementFingerprint fingerprint) {
+        if (fingerprint == null || fingerprint.attributes == null) {
+            return;
+        }
+        if (localHealingEngine != null) {
+            localHealingEngine.index(fingerprint, null);
+        }
+        markKnownSelectors(session, fingerprint);
+    }
+
+    // The fingerprint's stored selectors, its id and name as By.toString() keys, so lookups through any of
+    // them count as registered on its page
+    private static void markKnownSelectors(SessionState session, SelfHealingSdk.ElementFingerprint fingerprint) {
+        String pageUrl = fingerprint.attributes.get("page_url");
+        if (fingerprint.selectors != null) {
+            for (String stored : fingerprint.selectors) {
+                String key = LocalHealingEngine.toByString(stored);
+                if (key != null) {
+                    session.markKnown(pageUrl, key);
+                }
+            }
+        }
+        String id = fingerprint.attributes.get("id");
+        if (id != null && !id.isEmpty()) {
+            session.markKnown(pageUrl, "By.id: " + id);
+        }
+        String name = fingerprint.attributes.get("name");
+        if (name != null && !name.isEmpty()) {
+            session.markKnown(pageUrl, "By.name: " + name);
+        }
+    }
+
+    // Weak, so a thread that outlives its driver does not keep the driver reachable
+    private static final class DriverSession {
+        final WeakReference<WebDriver> driver;
+        final SessionState session;
+
+        DriverSession(WebDriver driver, SessionState session) {
+            this.driver = new WeakReference<>(driver);
+            this.session = session;
+        }
+    }
+
+    // Registered on the session's current page, or with the same attributes by another JVM / earlier run according
+    // to the journal. Only asked once the element was captured: a changed element is registered again.
+    private boolean isRegistered(SessionState session, String selector, Map<String, String> attributes) {
+        if (session.isRegistered(selector)) {
+            return true;
+        }
+        if (journal != null && session.currentPage() != null && journal.contains(session.journalKey(selector), attributes)) {
+            markRegistered(session, selector, attributes);
+            return true;
+        }
+        return false;
+    }
+
+    private static void markRegistered(SessionState session, String selector, Map<String, String> attributes) {
+        session.markRegistered(attributes.get("page_url"), selector);
+    }
+
+    // Queue callback recording the fingerprints under their journal keys (null: not journaled) once the service
+    // accepted them, null without journal
+    private Runnable journalOnSent(List<String> keys, List<SelfHealingSdk.ElementFingerprint> fingerprints) {
+        if (journal == null) {
+            return null;
+        }
+        return () -> {
+            for (int i = 0; i < keys.size(); i++) {
+                if (keys.get(i) != null) {
+                    journal.record(keys.get(i), fingerprints.get(i).attributes);
+                }
+            }
+        };
+    }
 
     // Register element after successful findElement
     //@AfterReturning(pointcut = "execution(* org.openqa.selenium.WebDriver.findElement(org.openqa.selenium.By)) && args(by)", returning = "element")
@@ -168,8 +601,9 @@ public class SelfHealingSeleniumAspect {
         System.out.println("--------------------------------------------------");
         try {
             String selector = by.toString(); // e.g. 'By.id: username' or 'By.cssSelector: .btn'
-            if (!registeredSelectors.contains(selector)) {
-                WebDriver driver = (WebDriver) jp.getTarget();
+            WebDriver driver = (WebDriver) jp.getTarget();
+            SessionState session = sessionFor(driver);
+            if (!session.isRegistered(selector)) {
                 String pageUrl = driver.getCurrentUrl();
                 String tagName = element.getTagName();
                 String text = element.getText();
@@ -201,7 +635,7 @@ public class SelfHealingSeleniumAspect {
                 }
 
                 SelfHealingSdk.ElementFingerprint fp = new SelfHealingSdk.ElementFingerprint();
-                fp.id = UUID.randomUUID();
+                fp.id = FingerprintIds.next();
                 fp.attributes = attributes;
                 fp.selectors = selectors;
 
@@ -209,7 +643,7 @@ public class SelfHealingSeleniumAspect {
                 request.fingerprint = fp;
                 sdk.registerFingerprint(request);
 
-                registeredSelectors.add(selector);
+                session.markRegistered(pageUrl, selector);
             }
         } catch (Exception e) {
             System.err.println("[SelfHealingSeleniumAspect] Registration failed: " + e.getMessage());
@@ -261,12 +695,11 @@ public class SelfHealingSeleniumAspect {
     }
 
     // Helper method: convert By.toString() into By object (basic support for id, cssSelector, xpath)
-    private By parseSelectorString(String selectorStr) {
+    static By parseSelectorString(String selectorStr) {
         if (selectorStr == null) return null;
 
         // Example: "By.id: username"
-        Pattern pattern = Pattern.compile("By\\.(\\w+): (.+)");
-        java.util.regex.Matcher matcher = pattern.matcher(selectorStr);
+        java.util.regex.Matcher matcher = SELECTOR_PATTERN.matcher(selectorStr);
         if (matcher.matches()) {
             String type = matcher.group(1);
             String value = matcher.group(2);
@@ -283,6 +716,10 @@ public class SelfHealingSeleniumAspect {
                     return By.className(value);
                 case "tagName":
                     return By.tagName(value);
+                case "linkText":
+                    return By.linkText(value);
+                case "partialLinkText":
+                    return By.partialLinkText(value);
                 default:
                     System.err.println("[SelfHealingSeleniumAspect] Unsupported selector type for healing: " + type);
                     return null;
@@ -293,21 +730,23 @@ public class SelfHealingSeleniumAspect {
     }
 
     // Optional: extract cleaner cssSelector from By string (if possible)
-    private String extractCssSelectorFromBy(By by) {
-        String s = by.toString();  // e.g., "By.cssSelector: .btn-primary"
-        if (s.startsWith("By.cssSelector: ")) {
-            return s.substring("By.cssSelector: ".length());
-        }
-        return null;
+    static String extractCssSelectorFromBy(By by) {
+        return extractCssSelector(SelectorKeys.of(by));
+    }
+
+    // Same from the By.toString() form, e.g. "By.cssSelector: .btn-primary"
+    static String extractCssSelector(String selector) {
+        return selector.startsWith(CSS_PREFIX) ? selector.substring(CSS_PREFIX.length()) : null;
     }
 
     // Optional: extract cleaner xpathSelector from By string (if possible)
-    private String extractXPathSelectorFromBy(By by) {
-        String s = by.toString();  // e.g., "By.xpath: //button"
-        if (s.startsWith("By.xpath: ")) {
-            return s.substring("By.xpath: ".length());
-        }
-        return null;
+    static String extractXPathSelectorFromBy(By by) {
+        return extractXPathSelector(SelectorKeys.of(by));
+    }
+
+    // Same from the By.toString() form, e.g. "By.xpath: //button"
+    static String extractXPathSelector(String selector) {
+        return selector.startsWith(XPATH_PREFIX) ? selector.substring(XPATH_PREFIX.length()) : null;
     }
 }
 
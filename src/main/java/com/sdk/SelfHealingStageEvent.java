@@ -0,0 +1,33 @@
+package com.sdk;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JDK Flight Recorder event for one SDK stage, recorded with e.g. -XX:StartFlightRecording
+@Name("com.sdk.SelfHealingStage")
+@Label("Self-Healing Stage")
+@Category({"Self-Healing SDK"})
+@Description("Time spent by the self-healing SDK in one stage of a findElement call")
+@StackTrace(false)
+public class SelfHealingStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Selector")
+    String selector;
+
+    @Label("Page URL")
+    String pageUrl;
+
+    @Label("Outcome")
+    String outcome;
+
+    // Not part of the recorded event, used for the in-process histograms
+    transient SdkStage sdkStage;
+    transient long startNanos;
+}
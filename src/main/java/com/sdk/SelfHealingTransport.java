@@ -0,0 +1,35 @@
+package com.sdk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+// Pluggable HTTP layer used by SelfHealingSdk. Implementations return the (already decompressed)
+// response body as a stream, callers are responsible for closing it.
+// Non-2xx answers must be reported as SelfHealingHttpException.
+public interface SelfHealingTransport {
+
+    InputStream post(String endpoint, String contentType, byte[] body) throws IOException;
+
+    InputStream get(String endpoint) throws IOException;
+
+    // Same calls with a per-call deadline; implementations without deadlines fall back to their own timeouts
+    default InputStream post(String endpoint, String contentType, byte[] body, Duration timeout) throws IOException {
+        return post(endpoint, contentType, body);
+    }
+
+    default InputStream get(String endpoint, Duration timeout) throws IOException {
+        return get(endpoint);
+    }
+
+    // Non-blocking post, used for hedged requests. The default completes on the calling thread,
+    // so hedging only takes effect with a transport that overrides it.
+    default CompletableFuture<InputStream> postAsync(String endpoint, String contentType, byte[] body, Duration timeout) {
+        try {
+            return CompletableFuture.completedFuture(post(endpoint, contentType, body, timeout));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.sdk;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// What the aspect keeps for one WebDriver session: selectors already registered per page, healed-selector
+// promotions and the navigation prefetcher. Created on the driver's first advised call and released when
+// the driver quits, so parallel sessions never share (or lock) each other's tables.
+//
+// Registrations are deduplicated per page: the same selector on another page is a different element and
+// is registered again. A page whose interactable elements were captured at once is only captured once,
+// the selectors generated for its elements count as registered. Memory is bounded by maxPages (least recently visited evicted) times
+// maxSelectorsPerPage looked-up selectors (a full page forgets one to remember the next); the generated selectors
+// are kept apart, bounded by the page capture and prefetch sizes.
+final class SessionState {
+
+    private final int maxPages;
+    private final int maxSelectorsPerPage;
+
+    // Normalized page URL -> what was registered on it, access ordered
+    private final Map<String, PageEntry> pages;
+
+    // Page the driver is on according to its last navigation or capture, with its entry,
+    // so the findElement hit path is a single lock-free set lookup
+    private volatile String currentPage;
+    private volatile PageEntry currentEntry;
+    // Set by a click, submit or history navigation, which may have left currentPage: the next lookup
+    // reads the driver's URL once
+    private volatile boolean pageUnverified;
+
+    private static final class PageEntry {
+        // Selectors looked up and registered on the page, at most maxSelectorsPerPage
+        final Set<String> selectors = ConcurrentHashMap.newKeySet();
+        // Selectors generated for the elements of a page capture or prefetch
+        final Set<String> known = ConcurrentHashMap.newKeySet();
+        // Set once the page capture ran on this page
+        volatile boolean captured;
+        // Healed-selector rewrites made on this page, forgotten with it
+        final SelectorPromotions.Page promotions;
+
+        PageEntry(String page) {
+            this.promotions = new SelectorPromotions.Page(page);
+        }
+    }
+
+    // Null when promotion is disabled
+    final SelectorPromotions promotions;
+    private volatile PagePrefetcher prefetcher;
+    private volatile boolean released;
+
+    SessionState() {
+        this(SelfHealingConfig.SESSION_MAX_PAGES, SelfHealingConfig.SESSION_MAX_SELECTORS_PER_PAGE);
+    }
+
+    SessionState(int maxPages, int maxSelectorsPerPage) {
+        this.maxPages = Math.max(1, maxPages);
+        this.maxSelectorsPerPage = Math.max(1, maxSelectorsPerPage);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PageEntry> eldest) {
+                return size() > SessionState.this.maxPages;
+            }
+        };
+        this.promotions = SelfHealingConfig.PROMOTION_ENABLED ? new SelectorPromotions() : null;
+    }
+
+    // Driver navigated (get / navigate().to), an element was captured on this page or the driver reported
+    // it as its URL after a click.
+    void enterPage(String pageUrl) {
+        pageUnverified = false;
+        String page = PageUrls.normalize(pageUrl);
+        if (page.equals(currentPage)) {
+            return;
+        }
+        synchronized (pages) {
+            currentPage = page;
+            currentEntry = entryFor(page);
+        }
+    }
+
+    boolean isRegistered(String selector) {
+        PageEntry entry = currentEntry;
+        return entry != null && (entry.selectors.contains(selector) || entry.known.contains(selector));
+    }
+
+    void markRegistered(String pageUrl, String selector) {
+        Set<String> selectors = entryFor(PageUrls.normalize(pageUrl)).selectors;
+        if (selectors.add(selector)) {
+            // Over the cap: forget another one, it is registered again if it is looked up again
+            Iterator<String> it = selectors.iterator();
+            while (selectors.size() > maxSelectorsPerPage && it.hasNext()) {
+                if (!it.next().equals(selector)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    // Selector generated for an element registered by a page capture or prefetch
+    void markKnown(String pageUrl, String selector) {
+        entryFor(PageUrls.normalize(pageUrl)).known.add(selector);
+    }
+
+    // Promotions of the driver's current page, null before its first page. On the findElement hit path:
+    // a volatile read, the page URL was normalized once by enterPage.
+    SelectorPromotions.Page currentPromotions() {
+        PageEntry entry = currentEntry;
+        return entry != null ? entry.promotions : null;
+    }
+
+    // Promotions of the given page, where a heal on it is promoted
+    SelectorPromotions.Page promotionsOf(String pageUrl) {
+        return entryFor(PageUrls.normalize(pageUrl)).promotions;
+    }
+
+    // Whether the page capture already ran on the driver's current page
+    boolean isPageCaptured() {
+        PageEntry entry = currentEntry;
+        return entry != null && entry.captured;
+    }
+
+    void markPageCaptured(String pageUrl) {
+        entryFor(PageUrls.normalize(pageUrl)).captured = true;
+    }
+
+    // Registration key shared with other JVMs through the journal
+    String journalKey(String selector) {
+        String page = currentPage;
+        return page == null || page.isEmpty() ? selector : page + '\n' + selector;
+    }
+
+    private PageEntry entryFor(String page) {
+        synchronized (pages) {
+            PageEntry entry = pages.computeIfAbsent(page, PageEntry::new);
+            // The current page was evicted while the driver stayed on it: follow its new entry
+            if (page.equals(currentPage) && currentEntry != entry) {
+                currentEntry = entry;
+            }
+            return entry;
+        }
+    }
+
+    PagePrefetcher prefetcher(SelfHealingSdk sdk, Executor executor, Consumer<SelfHealingSdk.ElementFingerprint> sink) {
+        PagePrefetcher p = prefetcher;
+        if (p == null) {
+            synchronized (this) {
+                p = prefetcher;
+                if (p == null) {
+                    p = new PagePrefetcher(sdk, executor, sink);
+                    prefetcher = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    // Prefetcher of this session, null when nothing was prefetched yet
+    PagePrefetcher prefetcher() {
+        return prefetcher;
+    }
+
+    String currentPage() {
+        return currentPage;
+    }
+
+    void markPageUnverified() {
+        pageUnverified = true;
+    }
+
+    boolean isPageUnverified() {
+        return pageUnverified;
+    }
+
+    int pageCount() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    int selectorCount() {
+        synchronized (pages) {
+            return pages.values().stream().mapToInt(entry -> entry.selectors.size() + entry.known.size()).sum();
+        }
+    }
+
+    void release() {
+        released = true;
+        synchronized (pages) {
+            pages.clear();
+        }
+        currentEntry = null;
+    }
+
+    boolean isReleased() {
+        return released;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sdk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.util.Locale;
+
+// Encoding of request bodies sent to the healing API. The binary formats carry the same data model as
+// JSON but skip quoting/escaping and, for Smile, repeated field names. Responses are always JSON.
+public enum WireFormat {
+    JSON("application/json"),
+    SMILE("application/x-jackson-smile"),
+    CBOR("application/cbor");
+
+    private final String contentType;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    ObjectMapper newMapper() {
+        switch (this) {
+            case SMILE:
+                return new ObjectMapper(new SmileFactory());
+            case CBOR:
+                return new ObjectMapper(new CBORFactory());
+            default:
+                return new ObjectMapper();
+        }
+    }
+
+    // "json", "smile" or "cbor"; anything else is JSON
+    public static WireFormat parse(String name) {
+        if (name != null) {
+            for (WireFormat format : values()) {
+                if (format.name().equals(name.trim().toUpperCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,357 @@
+package com.sdk;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory WebDriver for tests and benchmarks: elements are registered per By.toString(),
+// the SDK's scripts are answered from the element data, misses can simulate the implicit wait.
+// Lives in com.sdk so the load-time weaver applies SelfHealingSeleniumAspect to it.
+public class FakeWebDriver implements WebDriver, JavascriptExecutor {
+
+    private final Map<String, FakeElement> elements = new ConcurrentHashMap<>();
+    // Selector -> number of elements it matches in the page, when more than one
+    private final Map<String, Integer> matchCounts = new ConcurrentHashMap<>();
+    private volatile String currentUrl;
+    private volatile long missDelayMs;
+    private volatile long roundTripMs;
+
+    public final AtomicLong findCalls = new AtomicLong();
+    public final AtomicLong scriptCalls = new AtomicLong();
+
+    public FakeWebDriver(String url) {
+        this.currentUrl = url;
+    }
+
+    public FakeElement addElement(String selector, String tagName, String text, Map<String, String> attributes) {
+        FakeElement element = new FakeElement(tagName, text, attributes);
+        elements.put(selector, element);
+        return element;
+    }
+
+    public void removeElement(String selector) {
+        elements.remove(selector);
+        matchCounts.remove(selector);
+    }
+
+    // Makes the selector ambiguous: the verification script reports this many matches
+    public void setMatchCount(String selector, int count) {
+        matchCounts.put(selector, count);
+    }
+
+    // Simulated implicit wait paid by every lookup that finds nothing
+    public void setMissDelayMs(long missDelayMs) {
+        this.missDelayMs = missDelayMs;
+    }
+
+    // Navigation the SDK does not see by URL, e.g. the effect of clicking a link
+    public void setCurrentUrl(String url) {
+        this.currentUrl = url;
+    }
+
+    // Simulated browser round trip paid by every lookup and script, as with a remote driver
+    public void setRoundTripMs(long roundTripMs) {
+        this.roundTripMs = roundTripMs;
+    }
+
+    private void roundTrip() {
+        if (roundTripMs > 0) {
+            try {
+                Thread.sleep(roundTripMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Same lookup as findElement, but not an advised join point (baseline for benchmarks)
+    public WebElement lookup(By by) {
+        findCalls.incrementAndGet();
+        roundTrip();
+        FakeElement element = elements.get(by.toString());
+        if (element == null) {
+            if (missDelayMs > 0) {
+                try {
+                    Thread.sleep(missDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            throw new NoSuchElementException("Unable to locate element: " + by);
+        }
+        return element;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return lookup(by);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        FakeElement element = elements.get(by.toString());
+        return element == null ? Collections.emptyList() : List.of(element);
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        scriptCalls.incrementAndGet();
+        roundTrip();
+        if (ElementCapture.CAPTURE_SCRIPT.equals(script)) {
+            return ((FakeElement) args[0]).capture(currentUrl);
+        }
+        if (LocalHealingEngine.SNAPSHOT_SCRIPT.equals(script)) {
+            List<Object> candidates = new ArrayList<>();
+            for (FakeElement element : new LinkedHashMap<>(elements).values()) {
+                candidates.add(element.snapshot());
+            }
+            return candidates;
+        }
+        if (PageCapture.PAGE_CAPTURE_SCRIPT.equals(script)) {
+            List<Object> captured = new ArrayList<>();
+            int current = -1;
+            for (Map.Entry<String, FakeElement> entry : new LinkedHashMap<>(elements).entrySet()) {
+                FakeElement element = entry.getValue();
+                if (element == args[0]) {
+                    current = captured.size();
+                }
+                Map<String, Object> item = new HashMap<>();
+                item.put("attributes", element.attributes);
+                item.put("tag_name", element.tagName);
+                item.put("text", element.text);
+                item.put("selectors", List.of(storedForm(entry.getKey())));
+                item.put("bounding_box", "0,0,100,20");
+                captured.add(item);
+            }
+            Map<String, Object> page = new HashMap<>();
+            page.put("page_url", currentUrl);
+            page.put("current", current);
+            page.put("elements", captured);
+            return page;
+        }
+        if (CandidateVerifier.VERIFY_SCRIPT.equals(script)) {
+            List<Object> checks = new ArrayList<>();
+            for (Object spec : (List<?>) args[0]) {
+                List<?> typeAndValue = (List<?>) spec;
+                String selector = "By." + typeAndValue.get(0) + ": " + typeAndValue.get(1);
+                FakeElement element = elements.get(selector);
+                Map<String, Object> check = new HashMap<>();
+                check.put("count", element == null ? 0 : matchCounts.getOrDefault(selector, 1));
+                check.put("visible", element != null && element.visible);
+                check.put("element", element);
+                checks.add(check);
+            }
+            return checks;
+        }
+        return null;
+    }
+
+    // The "css: ..." / "xpath: ..." form the page capture script generates for an element
+    private static String storedForm(String selector) {
+        if (selector.startsWith("By.id: ")) {
+            return "css: #" + selector.substring("By.id: ".length());
+        }
+        if (selector.startsWith("By.cssSelector: ")) {
+            return "css: " + selector.substring("By.cssSelector: ".length());
+        }
+        if (selector.startsWith("By.xpath: ")) {
+            return "xpath: " + selector.substring("By.xpath: ".length());
+        }
+        return selector;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return executeScript(script, args);
+    }
+
+    @Override
+    public void get(String url) {
+        this.currentUrl = url;
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return currentUrl;
+    }
+
+    @Override
+    public String getTitle() {
+        return "";
+    }
+
+    @Override
+    public String getPageSource() {
+        return "";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Set.of("main");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return "main";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static class FakeElement implements WebElement {
+        final String tagName;
+        final String text;
+        final Map<String, String> attributes;
+        volatile boolean visible = true;
+
+        FakeElement(String tagName, String text, Map<String, String> attributes) {
+            this.tagName = tagName;
+            this.text = text;
+            this.attributes = new HashMap<>(attributes);
+        }
+
+        Map<String, Object> capture(String pageUrl) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("attributes", new HashMap<>(attributes));
+            result.put("tag_name", tagName);
+            result.put("text", text);
+            result.put("page_url", pageUrl);
+            result.put("outer_html", "<" + tagName + ">" + text + "</" + tagName + ">");
+            result.put("bounding_box", "0,0,100,20");
+            return result;
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new HashMap<>();
+            result.put("element", this);
+            result.put("tag_name", tagName);
+            result.put("text", text);
+            result.put("attributes", new HashMap<>(attributes));
+            String id = attributes.get("id");
+            result.put("css_path", id != null ? "#" + id : tagName);
+            result.put("visible", visible);
+            return result;
+        }
+
+        @Override
+        public void click() {
+        }
+
+        @Override
+        public void submit() {
+        }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) {
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public String getTagName() {
+            return tagName;
+        }
+
+        @Override
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public boolean isSelected() {
+            return false;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public WebElement findElement(By by) {
+            throw new NoSuchElementException("Unable to locate element: " + by);
+        }
+
+        @Override
+        public boolean isDisplayed() {
+            return visible;
+        }
+
+        public void setVisible(boolean visible) {
+            this.visible = visible;
+        }
+
+        @Override
+        public Point getLocation() {
+            return new Point(0, 0);
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension(100, 20);
+        }
+
+        @Override
+        public Rectangle getRect() {
+            return new Rectangle(0, 0, 20, 100);
+        }
+
+        @Override
+        public String getCssValue(String propertyName) {
+            return "";
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
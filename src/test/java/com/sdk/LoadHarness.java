@@ -0,0 +1,268 @@
+package com.sdk;
+
+import org.aspectj.lang.Aspects;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Replays a recorded findElement trace through the woven aspect against FakeWebDrivers backed by a
+// StubHealingServer, and reports throughput and latency percentiles. No browser, no network.
+//
+// Trace format, one lookup per line, '#' starts a comment:
+//   page_url <TAB> selector (By.toString() form) <TAB> present (true/false) [<TAB> healed selector]
+// A lookup that is not present fails unless a healed selector is given; then the page holds the healed
+// element and the stub answers the heal request with it.
+//
+// Run with ./gradlew loadHarness [-Pload.trace=path] [-Pload.threads=8] [-Pload.sessions=64] ...
+public class LoadHarness {
+
+    public static final class TraceEntry {
+        final String pageUrl;
+        final String selector;
+        final boolean present;
+        final String healedSelector;
+
+        TraceEntry(String pageUrl, String selector, boolean present, String healedSelector) {
+            this.pageUrl = pageUrl;
+            this.selector = selector;
+            this.present = present;
+            this.healedSelector = healedSelector;
+        }
+    }
+
+    public static final class Result {
+        public final long lookups;
+        public final long failures;
+        public final long healed;
+        public final long elapsedNanos;
+        public final LatencyHistogram latency;
+
+        Result(long lookups, long failures, long healed, long elapsedNanos, LatencyHistogram latency) {
+            this.lookups = lookups;
+            this.failures = failures;
+            this.healed = healed;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public double throughput() {
+            return elapsedNanos == 0 ? 0 : lookups / (elapsedNanos / 1e9);
+        }
+
+        public String summary() {
+            return String.format(Locale.ROOT,
+                    "lookups=%d failures=%d healed=%d throughput=%.0f/s p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                    lookups, failures, healed, throughput(), millis(50), millis(90), millis(99), millis(99.9), latency.getMax() / 1e6);
+        }
+
+        public String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"lookups\":%d,\"failures\":%d,\"healed\":%d,\"elapsedMs\":%.1f,\"throughput\":%.1f,"
+                            + "\"p50Ms\":%.4f,\"p90Ms\":%.4f,\"p99Ms\":%.4f,\"p999Ms\":%.4f,\"maxMs\":%.4f}",
+                    lookups, failures, healed, elapsedNanos / 1e6, throughput(),
+                    millis(50), millis(90), millis(99), millis(99.9), latency.getMax() / 1e6);
+        }
+
+        private double millis(double percentile) {
+            return latency.percentile(percentile) / 1e6;
+        }
+    }
+
+    private final List<TraceEntry> trace;
+    private final StubHealingServer server;
+    private final long roundTripMs;
+
+    public LoadHarness(List<TraceEntry> trace, StubHealingServer server, long roundTripMs) {
+        this.trace = trace;
+        this.server = server;
+        this.roundTripMs = roundTripMs;
+        for (TraceEntry entry : trace) {
+            if (!entry.present && entry.healedSelector != null) {
+                server.addHealRule(entry.selector, entry.healedSelector);
+            }
+        }
+    }
+
+    public static List<TraceEntry> parse(Reader source) throws IOException {
+        List<TraceEntry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (fields.length < 3) {
+                throw new IOException("Trace line " + number + ": expected page, selector and present, got " + line);
+            }
+            entries.add(new TraceEntry(fields[0], fields[1], Boolean.parseBoolean(fields[2].trim()),
+                    fields.length > 3 && !fields[3].isBlank() ? fields[3] : null));
+        }
+        return entries;
+    }
+
+    // A file path, or a class path resource when no such file exists (e.g. /traces/sample.trace)
+    public static List<TraceEntry> load(String location) throws IOException {
+        Path path = Path.of(location);
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                return parse(reader);
+            }
+        }
+        try (InputStream in = LoadHarness.class.getResourceAsStream(location)) {
+            if (in == null) {
+                throw new IOException("Trace not found: " + location);
+            }
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    // Replays the trace once per session, each session on a new driver that quits at the end,
+    // spread over the given number of threads. The aspect talks to the stub server for the duration of the
+    // run, its registrations are flushed to the stub before this returns.
+    public Result run(int threads, int sessions) throws Exception {
+        SelfHealingSeleniumAspect aspect = Aspects.aspectOf(SelfHealingSeleniumAspect.class);
+        SelfHealingSdk previous = aspect.connect(new SelfHealingSdk(new JdkHttpTransport(server.baseUrl())));
+        try {
+            return replay(threads, sessions);
+        } finally {
+            aspect.connect(previous);
+        }
+    }
+
+    private Result replay(int threads, int sessions) throws Exception {
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong failures = new AtomicLong();
+        AtomicLong healed = new AtomicLong();
+        AtomicInteger remaining = new AtomicInteger(sessions);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(workers.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        replay(latency, failures, healed);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new Result(latency.getCount(), failures.get(), healed.get(), System.nanoTime() - start, latency);
+    }
+
+    private void replay(LatencyHistogram latency, AtomicLong failures, AtomicLong healed) {
+        FakeWebDriver driver = new FakeWebDriver("about:blank");
+        driver.setRoundTripMs(roundTripMs);
+        Set<String> onPage = new HashSet<>();
+        String page = null;
+        try {
+            for (TraceEntry entry : trace) {
+                if (!entry.pageUrl.equals(page)) {
+                    page = entry.pageUrl;
+                    driver.get(page);
+                }
+                setUp(driver, onPage, entry);
+                By by = SelfHealingSeleniumAspect.parseSelectorString(entry.selector);
+                long begin = System.nanoTime();
+                try {
+                    driver.findElement(by);
+                    if (!entry.present) {
+                        healed.incrementAndGet();
+                    }
+                } catch (NoSuchElementException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latency.record(System.nanoTime() - begin);
+                }
+            }
+        } finally {
+            driver.quit();
+        }
+    }
+
+    // Puts the page in the state the trace recorded: selector present or missing, healed element present
+    private static void setUp(FakeWebDriver driver, Set<String> onPage, TraceEntry entry) {
+        if (entry.present) {
+            add(driver, onPage, entry.selector);
+        } else {
+            if (onPage.remove(entry.selector)) {
+                driver.removeElement(entry.selector);
+            }
+            if (entry.healedSelector != null) {
+                add(driver, onPage, entry.healedSelector);
+            }
+        }
+    }
+
+    private static void add(FakeWebDriver driver, Set<String> onPage, String selector) {
+        if (onPage.add(selector)) {
+            String value = selector.substring(selector.indexOf(": ") + 2);
+            Map<String, String> attributes = selector.startsWith("By.id: ") ? Map.of("id", value) : Map.of("data-selector", value);
+            driver.addElement(selector, "input", "", attributes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String traceLocation = System.getProperty("load.trace", "/traces/sample.trace");
+        int threads = Integer.getInteger("load.threads", 8);
+        int sessions = Integer.getInteger("load.sessions", 64);
+        long roundTripMs = Long.getLong("load.roundTripMs", 0L);
+        String output = System.getProperty("load.output");
+
+        StubHealingServer server = new StubHealingServer();
+        server.setLatency(Long.getLong("load.serverLatencyMs", 0L), Long.getLong("load.serverJitterMs", 0L));
+        server.setFailureRate(Double.parseDouble(System.getProperty("load.serverFailureRate", "0")), 503);
+        int status = 1;
+        try {
+            List<TraceEntry> trace = load(traceLocation);
+            LoadHarness harness = new LoadHarness(trace, server, roundTripMs);
+            // Warm-up pass: class loading, weaving, JIT
+            harness.run(threads, Math.max(1, sessions / 4));
+            Result result = harness.run(threads, sessions);
+            System.out.printf(Locale.ROOT, "trace=%s (%d lookups) threads=%d sessions=%d%n", traceLocation, trace.size(), threads, sessions);
+            System.out.println(result.summary());
+            System.out.printf(Locale.ROOT, "server: heal=%d register=%d injectedFailures=%d%n",
+                    server.healCalls.get(), server.registerCalls.get(), server.injectedFailures.get());
+            if (output != null) {
+                Path path = Path.of(output);
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, result.toJson(), StandardCharsets.UTF_8);
+                System.out.println("Results written to " + path);
+            }
+            status = 0;
+        } catch (Throwable t) {
+            t.printStackTrace();
+        } finally {
+            server.close();
+            // The registration queue's dispatcher is not a daemon thread, so the JVM has to be ended explicitly
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.sdk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+// Local stand-in for the healing service, built on the JDK's com.sun.net.httpserver.
+// Latency and failures can be injected on the API endpoints to exercise deadlines, hedging and the breaker;
+// GET /health only fails while the server is marked down.
+public class StubHealingServer implements AutoCloseable {
+
+    static {
+        // Without TCP_NODELAY small responses hit the 40 ms delayed-ACK stall and dominate every measurement
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // failed selector -> healed selectors, best first
+    private final Map<String, List<String>> healRules = new ConcurrentHashMap<>();
+    private final List<SelfHealingSdk.ElementFingerprint> fingerprints = new CopyOnWriteArrayList<>();
+    // sha256 hex -> content of every blob received
+    private final Map<String, String> blobStore = new ConcurrentHashMap<>();
+    private volatile boolean acceptBinaryFormats = true;
+
+    // Injected behaviour of the API endpoints
+    private volatile long latencyMs;
+    private volatile long latencyJitterMs;
+    private volatile double failureRate;
+    private volatile int failureStatus = 503;
+    private volatile boolean down;
+    private volatile long bodyStallMs;
+    private volatile int gzipRejectStatus;
+
+    public final AtomicLong healCalls = new AtomicLong();
+    public final AtomicLong registerCalls = new AtomicLong();
+    public final AtomicLong pageFetchCalls = new AtomicLong();
+    public final AtomicLong knownBlobsCalls = new AtomicLong();
+    public final AtomicLong blobsReceived = new AtomicLong();
+    // Request body bytes as they came over the wire (compressed size for gzip bodies)
+    public final AtomicLong bytesReceived = new AtomicLong();
+    public final AtomicLong gzipRequests = new AtomicLong();
+    public final Map<String, AtomicLong> requestsByContentType = new ConcurrentHashMap<>();
+    public final AtomicLong healthCalls = new AtomicLong();
+    public final AtomicLong injectedFailures = new AtomicLong();
+
+    public StubHealingServer() throws IOException {
+        this(0);
+    }
+
+    public StubHealingServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        // Injected latency sleeps in the handler, one virtual thread per exchange keeps slow calls from queueing
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/heal-selector", injected(this::heal));
+        server.createContext("/register-fingerprint", injected(this::registerOne));
+        server.createContext("/register-fingerprints", injected(this::registerBatch));
+        server.createContext("/all-fingerprints", injected(this::allFingerprints));
+        server.createContext("/page-fingerprints", injected(this::pageFingerprints));
+        server.createContext("/known-blobs", injected(this::knownBlobs));
+        server.createContext("/health", this::health);
+        server.start();
+    }
+
+    // Every API call waits latencyMs plus up to jitterMs
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = Math.max(0, latencyMs);
+        this.latencyJitterMs = Math.max(0, jitterMs);
+    }
+
+    // This share (0..1) of API calls is answered with the status instead of being handled
+    public void setFailureRate(double failureRate, int status) {
+        this.failureRate = failureRate;
+        this.failureStatus = status;
+    }
+
+    // API responses send their headers and half the body, then stall this long before the rest
+    public void setBodyStall(long bodyStallMs) {
+        this.bodyStallMs = Math.max(0, bodyStallMs);
+    }
+
+    // Non-zero: gzip request bodies are answered with this status, like a service that does not decode them
+    public void setGzipRejectStatus(int status) {
+        this.gzipRejectStatus = status;
+    }
+
+    // While down every endpoint, /health included, answers 503
+    public void setDown(boolean down) {
+        this.down = down;
+    }
+
+    private HttpHandler injected(HttpHandler handler) {
+        return exchange -> {
+            long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (down || (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate)) {
+                injectedFailures.incrementAndGet();
+                exchange.getRequestBody().close();
+                respond(exchange, down ? 503 : failureStatus, Map.of("error", "injected failure"));
+                return;
+            }
+            handler.handle(exchange);
+        };
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        healthCalls.incrementAndGet();
+        exchange.getRequestBody().close();
+        respond(exchange, down ? 503 : 200, Map.of("status", down ? "down" : "ok"));
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void addHealRule(String failedSelector, String healedSelector) {
+        healRules.put(failedSelector, List.of(healedSelector));
+    }
+
+    // Answered as a ranked candidate list, confidence 0.9 for the first and 0.1 less for each next one
+    public void addHealCandidates(String failedSelector, String... healedSelectors) {
+        healRules.put(failedSelector, List.of(healedSelectors));
+    }
+
+    public List<SelfHealingSdk.ElementFingerprint> getFingerprints() {
+        return fingerprints;
+    }
+
+    // When false, Smile/CBOR request bodies are answered with 415 like a JSON-only service
+    public void setAcceptBinaryFormats(boolean acceptBinaryFormats) {
+        this.acceptBinaryFormats = acceptBinaryFormats;
+    }
+
+    private void heal(HttpExchange exchange) throws IOException {
+        healCalls.incrementAndGet();
+        SelfHealingSdk.HealRequest request = read(exchange, SelfHealingSdk.HealRequest.class);
+        if (request == null) {
+            return;
+        }
+        SelfHealingSdk.HealResponse response = new SelfHealingSdk.HealResponse();
+        List<String> healed = healRules.getOrDefault(request.failed_selector, List.of());
+        if (!healed.isEmpty()) {
+            response.healed_selector = healed.get(0);
+            response.confidence = 0.9f;
+            response.candidates = new ArrayList<>();
+            for (int i = 0; i < healed.size(); i++) {
+                SelfHealingSdk.HealCandidate candidate = new SelfHealingSdk.HealCandidate();
+                candidate.selector = healed.get(i);
+                candidate.confidence = 0.9f - 0.1f * i;
+                response.candidates.add(candidate);
+            }
+        }
+        respond(exchange, 200, response);
+    }
+
+    private void registerOne(HttpExchange exchange) throws IOException {
+        registerCalls.incrementAndGet();
+        SelfHealingSdk.RegisterRequest request = read(exchange, SelfHealingSdk.RegisterRequest.class);
+        if (request == null) {
+            return;
+        }
+        store(exchange, request.blobs, List.of(request.fingerprint));
+    }
+
+    private void registerBatch(HttpExchange exchange) throws IOException {
+        registerCalls.incrementAndGet();
+        SelfHealingSdk.BatchRegisterRequest request = read(exchange, SelfHealingSdk.BatchRegisterRequest.class);
+        if (request == null) {
+            return;
+        }
+        store(exchange, request.blobs, request.fingerprints);
+    }
+
+    // Stores fingerprints with blob references resolved, 400 when a referenced blob was never sent
+    private void store(HttpExchange exchange, Map<String, String> blobs, List<SelfHealingSdk.ElementFingerprint> received) throws IOException {
+        if (blobs != null) {
+            blobsReceived.addAndGet(blobs.size());
+            blobStore.putAll(blobs);
+        }
+        for (SelfHealingSdk.ElementFingerprint fingerprint : received) {
+            if (fingerprint.blob_attributes == null) {
+                continue;
+            }
+            for (String name : fingerprint.blob_attributes) {
+                String reference = fingerprint.attributes.get(name);
+                String content = reference != null && reference.startsWith(BlobDeduplicator.REF_PREFIX)
+                        ? blobStore.get(reference.substring(BlobDeduplicator.REF_PREFIX.length())) : null;
+                if (content == null) {
+                    respond(exchange, 400, Map.of("error", "unknown blob " + reference));
+                    return;
+                }
+                fingerprint.attributes.put(name, content);
+            }
+            fingerprint.blob_attributes = null;
+        }
+        fingerprints.addAll(received);
+        respond(exchange, 200, Map.of("status", "ok"));
+    }
+
+    private void knownBlobs(HttpExchange exchange) throws IOException {
+        knownBlobsCalls.incrementAndGet();
+        SelfHealingSdk.KnownBlobsRequest request = read(exchange, SelfHealingSdk.KnownBlobsRequest.class);
+        if (request == null) {
+            return;
+        }
+        SelfHealingSdk.KnownBlobsResponse response = new SelfHealingSdk.KnownBlobsResponse();
+        response.known = request.hashes.stream().filter(blobStore::containsKey).toList();
+        respond(exchange, 200, response);
+    }
+
+    public Map<String, String> getBlobs() {
+        return blobStore;
+    }
+
+    private void allFingerprints(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().close();
+        respond(exchange, 200, fingerprints);
+    }
+
+    private void pageFingerprints(HttpExchange exchange) throws IOException {
+        pageFetchCalls.incrementAndGet();
+        exchange.getRequestBody().close();
+        String query = exchange.getRequestURI().getRawQuery();
+        String pageUrl = query != null && query.startsWith("page_url=")
+                ? URLDecoder.decode(query.substring("page_url=".length()), StandardCharsets.UTF_8) : "";
+        String page = PageUrls.normalize(pageUrl);
+        respond(exchange, 200, fingerprints.stream()
+                .filter(f -> f.attributes != null && page.equals(PageUrls.normalize(f.attributes.get("page_url"))))
+                .toList());
+    }
+
+    // Decodes the request body by Content-Type / Content-Encoding; answers 415 and returns null when not accepted
+    private <T> T read(HttpExchange exchange, Class<T> type) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        requestsByContentType.computeIfAbsent(String.valueOf(contentType), k -> new AtomicLong()).incrementAndGet();
+        ObjectMapper mapper = objectMapper;
+        if (WireFormat.SMILE.contentType().equals(contentType)) {
+            mapper = smileMapper;
+        } else if (WireFormat.CBOR.contentType().equals(contentType)) {
+            mapper = cborMapper;
+        }
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        bytesReceived.addAndGet(body.length);
+        if (mapper != objectMapper && !acceptBinaryFormats) {
+            respond(exchange, 415, Map.of("error", "unsupported " + contentType));
+            return null;
+        }
+        InputStream in = new ByteArrayInputStream(body);
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            if (gzipRejectStatus > 0) {
+                respond(exchange, gzipRejectStatus, Map.of("error", "unreadable body"));
+                return null;
+            }
+            gzipRequests.incrementAndGet();
+            in = new GZIPInputStream(in);
+        }
+        return mapper.readValue(in, type);
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        long stall = "/health".equals(exchange.getRequestURI().getPath()) ? 0 : bodyStallMs;
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (stall > 0) {
+                out.write(bytes, 0, bytes.length / 2);
+                out.flush();
+                try {
+                    Thread.sleep(stall);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                out.write(bytes, bytes.length / 2, bytes.length - bytes.length / 2);
+            } else {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
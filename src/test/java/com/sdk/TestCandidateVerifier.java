@@ -0,0 +1,70 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCandidateVerifier {
+
+    private static SelfHealingSdk.HealCandidate candidate(String selector, float confidence) {
+        SelfHealingSdk.HealCandidate candidate = new SelfHealingSdk.HealCandidate();
+        candidate.selector = selector;
+        candidate.confidence = confidence;
+        return candidate;
+    }
+
+    @Test
+    public void testPicksBestUniqueVisibleCandidate() {
+        FakeWebDriver driver = new FakeWebDriver("https://example.com/settings");
+        driver.addElement("By.cssSelector: .btn", "button", "Save", Map.of("class", "btn"));
+        driver.setMatchCount("By.cssSelector: .btn", 3);
+        driver.addElement("By.id: save-hidden", "button", "Save", Map.of("id", "save-hidden")).setVisible(false);
+        FakeWebDriver.FakeElement save = driver.addElement("By.xpath: //button[text()='Save']", "button", "Save", Map.of());
+
+        CandidateVerifier.VerifiedCandidate verified = CandidateVerifier.verify(driver, List.of(
+                candidate("By.id: save", 0.95f),                          // gone
+                candidate("css: .btn", 0.9f),                             // ambiguous
+                candidate("By.id: save-hidden", 0.8f),                    // hidden
+                candidate("xpath: //button[text()='Save']", 0.7f)));
+
+        assertNotNull(verified);
+        assertSame(save, verified.element);
+        assertEquals("By.xpath: //button[text()='Save']", verified.selector);
+        assertEquals(By.xpath("//button[text()='Save']"), verified.by);
+        assertEquals(0.7f, verified.confidence);
+        assertEquals(1, driver.scriptCalls.get());
+        assertEquals(0, driver.findCalls.get());
+    }
+
+    @Test
+    public void testNoQualifyingCandidate() {
+        FakeWebDriver driver = new FakeWebDriver("https://example.com/settings");
+        driver.addElement("By.cssSelector: .btn", "button", "Save", Map.of("class", "btn"));
+        driver.setMatchCount("By.cssSelector: .btn", 2);
+        assertNull(CandidateVerifier.verify(driver, List.of(candidate("By.cssSelector: .btn", 0.9f), candidate("By.id: save", 0.5f))));
+    }
+
+    @Test
+    public void testCandidatesFromResponse() {
+        SelfHealingSdk.HealResponse legacy = new SelfHealingSdk.HealResponse();
+        legacy.healed_selector = "By.id: save-v2";
+        legacy.confidence = 0.8f;
+        List<SelfHealingSdk.HealCandidate> single = CandidateVerifier.candidates(legacy, 5);
+        assertEquals(1, single.size());
+        assertEquals("By.id: save-v2", single.get(0).selector);
+
+        SelfHealingSdk.HealResponse ranked = new SelfHealingSdk.HealResponse();
+        ranked.healed_selector = "By.id: a";
+        ranked.candidates = new ArrayList<>(List.of(candidate("By.id: c", 0.2f), candidate("By.id: a", 0.9f),
+                candidate("", 0.99f), candidate("By.id: b", 0.5f)));
+        List<SelfHealingSdk.HealCandidate> top = CandidateVerifier.candidates(ranked, 2);
+        assertEquals(List.of("By.id: a", "By.id: b"), top.stream().map(c -> c.selector).toList());
+
+        assertTrue(CandidateVerifier.candidates(new SelfHealingSdk.HealResponse(), 5).isEmpty());
+    }
+}
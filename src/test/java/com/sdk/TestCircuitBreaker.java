@@ -0,0 +1,128 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCircuitBreaker {
+
+    private static void awaitState(CircuitBreaker breaker, CircuitBreaker.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (breaker.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(state, breaker.getState());
+    }
+
+    @Test
+    public void testOpensProbesAndCloses() throws Exception {
+        AtomicBoolean serviceUp = new AtomicBoolean(false);
+        CircuitBreaker breaker = new CircuitBreaker(3, 10, () -> {
+            if (!serviceUp.get()) {
+                throw new ConnectException("down");
+            }
+        });
+
+        // Answers from a running service do not count
+        breaker.onFailure(1_000, new SelfHealingHttpException(404));
+        breaker.onFailure(1_000, new ConnectException("down"));
+        breaker.onFailure(1_000, new SelfHealingHttpException(503));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure(1_000, new ConnectException("down"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitOpenException.class, () -> breaker.acquire("/heal-selector"));
+        assertEquals(1, breaker.getRejectedCount());
+
+        serviceUp.set(true);
+        awaitState(breaker, CircuitBreaker.State.HALF_OPEN);
+        breaker.acquire("/heal-selector");
+        // Only one trial call at a time
+        assertThrows(CircuitOpenException.class, () -> breaker.acquire("/heal-selector"));
+        breaker.onSuccess(1_000);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getOpenedCount());
+        assertTrue(breaker.getOpenNanos() > 0);
+    }
+
+    @Test
+    public void testFailedTrialReopens() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 10, () -> { });
+        breaker.onFailure(1_000, new ConnectException("down"));
+        awaitState(breaker, CircuitBreaker.State.HALF_OPEN);
+        breaker.acquire("/heal-selector");
+        breaker.onFailure(1_000, new ConnectException("still down"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedCount());
+    }
+
+    @Test
+    public void testSdkStopsCallingFailingService() {
+        AtomicInteger posts = new AtomicInteger();
+        SelfHealingSdk sdk = new SelfHealingSdk(new SelfHealingTransport() {
+            @Override
+            public InputStream post(String endpoint, String contentType, byte[] body) throws IOException {
+                posts.incrementAndGet();
+                throw new ConnectException("Connection refused");
+            }
+
+            @Override
+            public InputStream get(String endpoint) throws IOException {
+                throw new ConnectException("Connection refused");
+            }
+        });
+        for (int i = 0; i < SelfHealingConfig.BREAKER_FAILURE_THRESHOLD; i++) {
+            assertThrows(ConnectException.class, () -> sdk.healSelector(request("By.id: save-" + posts.get())));
+        }
+        assertThrows(CircuitOpenException.class, () -> sdk.healSelector(request("By.id: other")));
+        assertEquals(SelfHealingConfig.BREAKER_FAILURE_THRESHOLD, posts.get());
+        assertEquals(CircuitBreaker.State.OPEN, sdk.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void testHedgedHeal() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<InputStream> stuck = new CompletableFuture<>();
+        SelfHealingSdk sdk = new SelfHealingSdk(new SelfHealingTransport() {
+            @Override
+            public InputStream post(String endpoint, String contentType, byte[] body) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public InputStream get(String endpoint) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<InputStream> postAsync(String endpoint, String contentType, byte[] body, Duration timeout) {
+                if (sent.incrementAndGet() == 1) {
+                    return stuck;
+                }
+                return CompletableFuture.completedFuture(new ByteArrayInputStream(
+                        "{\"healed_selector\":\"By.id: save-v2\",\"confidence\":0.9}".getBytes(StandardCharsets.UTF_8)));
+            }
+        });
+        sdk.setHedgeAfterMs(20);
+
+        assertEquals("By.id: save-v2", sdk.healSelector(request("By.id: save")).healed_selector);
+        assertEquals(2, sent.get());
+        assertEquals(1, sdk.getHedgedRequestCount());
+        assertEquals(1, sdk.getHedgeWinCount());
+    }
+
+    private static SelfHealingSdk.HealRequest request(String selector) {
+        SelfHealingSdk.HealRequest request = new SelfHealingSdk.HealRequest();
+        request.failed_selector = selector;
+        return request;
+    }
+}
@@ -0,0 +1,161 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestContentAddressing {
+
+    private static final String LARGE_HTML = "<div class=\"card\">" + "<span>row</span>".repeat(400) + "</div>";
+
+    private static SelfHealingSdk.ElementFingerprint fingerprint(String selector, String outerHtml) {
+        SelfHealingSdk.ElementFingerprint fingerprint = new SelfHealingSdk.ElementFingerprint();
+        fingerprint.id = UUID.randomUUID();
+        fingerprint.selectors = List.of(selector);
+        fingerprint.attributes = new HashMap<>(Map.of("page_url", "http://app/list", "outer_html", outerHtml, "tag", "div"));
+        return fingerprint;
+    }
+
+    @Test
+    public void testRepeatedMarkupIsSentOnce() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            sdk.setContentAddressingEnabled(true);
+            SelfHealingSdk.ElementFingerprint first = fingerprint("#card-1", LARGE_HTML);
+            sdk.registerFingerprints(List.of(first, fingerprint("#card-2", LARGE_HTML)));
+            long bytesFirst = server.bytesReceived.get();
+
+            assertEquals(1, server.knownBlobsCalls.get());
+            assertEquals(1, server.blobsReceived.get());
+            // The local copy keeps the full value, the service resolved the reference
+            assertEquals(LARGE_HTML, first.attributes.get("outer_html"));
+            assertNull(first.blob_attributes);
+            assertEquals(2, server.getFingerprints().size());
+            assertEquals(LARGE_HTML, server.getFingerprints().get(1).attributes.get("outer_html"));
+
+            // Known locally now: no negotiation, no content
+            sdk.registerFingerprints(List.of(fingerprint("#card-3", LARGE_HTML), fingerprint("#card-4", "<b>small</b>")));
+            assertEquals(1, server.knownBlobsCalls.get());
+            assertEquals(1, server.blobsReceived.get());
+            assertTrue(server.bytesReceived.get() - bytesFirst < LARGE_HTML.length() / 2);
+            assertEquals(LARGE_HTML, server.getFingerprints().get(2).attributes.get("outer_html"));
+            assertEquals(LARGE_HTML.length() - 71, sdk.getBlobDeduplicator().getCharsSaved());
+
+            // A new client (e.g. the next test run) asks and is told the service has it
+            SelfHealingSdk other = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            other.setContentAddressingEnabled(true);
+            SelfHealingSdk.RegisterRequest request = new SelfHealingSdk.RegisterRequest();
+            request.fingerprint = fingerprint("#card-5", LARGE_HTML);
+            other.registerFingerprint(request);
+            assertEquals(2, server.knownBlobsCalls.get());
+            assertEquals(1, server.blobsReceived.get());
+            assertEquals(LARGE_HTML, server.getFingerprints().get(4).attributes.get("outer_html"));
+        }
+    }
+
+    @Test
+    public void testContentAddressingIsOptIn() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            assertNull(sdk.getBlobDeduplicator());
+            sdk.registerFingerprints(List.of(fingerprint("#card-1", LARGE_HTML), fingerprint("#card-2", LARGE_HTML)));
+            // No /known-blobs round trip, full values
+            assertEquals(0, server.knownBlobsCalls.get());
+            assertEquals(0, server.blobsReceived.get());
+            assertEquals(1, server.registerCalls.get());
+            assertEquals(LARGE_HTML, server.getFingerprints().get(1).attributes.get("outer_html"));
+        }
+    }
+
+    @Test
+    public void testValuesAreCapped() {
+        BlobDeduplicator dedup = new BlobDeduplicator(1024, 2048, 100);
+        BlobDeduplicator.Prepared prepared = dedup.prepare(List.of(fingerprint("#huge", "x".repeat(10_000))));
+        String reference = prepared.fingerprints.get(0).attributes.get("outer_html");
+        assertTrue(reference.startsWith(BlobDeduplicator.REF_PREFIX));
+        assertEquals(2048, prepared.blobs.get(reference.substring(BlobDeduplicator.REF_PREFIX.length())).length());
+        assertEquals(List.of("outer_html"), prepared.fingerprints.get(0).blob_attributes);
+    }
+
+    @Test
+    public void testSmileBodiesAndJsonFallback() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.addHealRule("#old", "#new");
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()), WireFormat.SMILE);
+            sdk.setContentAddressingEnabled(true);
+            sdk.registerFingerprints(List.of(fingerprint("#card-1", LARGE_HTML), fingerprint("#card-2", "<i>x</i>")));
+            SelfHealingSdk.HealRequest heal = new SelfHealingSdk.HealRequest();
+            heal.failed_selector = "#old";
+            heal.context = Map.of("page_url", "http://app/list");
+            assertEquals("#new", sdk.healSelector(heal).healed_selector);
+            assertEquals(3, server.requestsByContentType.get(WireFormat.SMILE.contentType()).get());
+            assertEquals(LARGE_HTML, server.getFingerprints().get(0).attributes.get("outer_html"));
+
+            server.setAcceptBinaryFormats(false);
+            sdk.registerFingerprints(List.of(fingerprint("#card-3", "<i>y</i>")));
+            assertEquals(WireFormat.JSON, sdk.getWireFormat());
+            assertEquals(3, server.getFingerprints().size());
+        }
+    }
+
+    @Test
+    public void testLargeBodiesAreCompressed() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            JdkHttpTransport transport = new JdkHttpTransport(server.baseUrl(), JdkHttpTransport.sharedClient(), Duration.ofSeconds(5), 1024);
+            SelfHealingSdk sdk = new SelfHealingSdk(transport, WireFormat.JSON);
+            SelfHealingSdk.RegisterRequest request = new SelfHealingSdk.RegisterRequest();
+            request.fingerprint = fingerprint("#card-1", "<p>" + "text ".repeat(400) + "</p>");
+            sdk.registerFingerprint(request);
+            assertEquals(1, server.gzipRequests.get());
+            assertTrue(server.bytesReceived.get() < 700);
+            assertEquals(request.fingerprint.attributes.get("outer_html"), server.getFingerprints().get(0).attributes.get("outer_html"));
+        }
+    }
+
+    @Test
+    public void testRequestCompressionIsOptIn() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()), WireFormat.JSON);
+            SelfHealingSdk.RegisterRequest request = new SelfHealingSdk.RegisterRequest();
+            request.fingerprint = fingerprint("#card-1", "<p>" + "text ".repeat(4_000) + "</p>");
+            sdk.registerFingerprint(request);
+            assertEquals(0, server.gzipRequests.get());
+            assertEquals(1, server.getFingerprints().size());
+        }
+    }
+
+    @Test
+    public void testRejectedGzipFallsBackToPlainBodies() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.setGzipRejectStatus(400);
+            JdkHttpTransport transport = new JdkHttpTransport(server.baseUrl(), JdkHttpTransport.sharedClient(), Duration.ofSeconds(5), 1024);
+            SelfHealingSdk sdk = new SelfHealingSdk(transport, WireFormat.JSON);
+            for (int i = 0; i < 2; i++) {
+                SelfHealingSdk.RegisterRequest request = new SelfHealingSdk.RegisterRequest();
+                request.fingerprint = fingerprint("#card-" + i, "<p>" + "text ".repeat(400) + i + "</p>");
+                sdk.registerFingerprint(request);
+            }
+            // One rejected gzip attempt, then plain bodies only
+            assertEquals(3, server.registerCalls.get());
+            assertEquals(2, server.getFingerprints().size());
+
+            server.setGzipRejectStatus(422);
+            server.addHealRule("By.id: old", "By.id: new");
+            JdkHttpTransport async = new JdkHttpTransport(server.baseUrl(), JdkHttpTransport.sharedClient(), Duration.ofSeconds(5), 16);
+            byte[] heal = "{\"failed_selector\":\"By.id: old\",\"context\":{\"page_url\":\"http://app/list\"}}".getBytes(StandardCharsets.UTF_8);
+            try (InputStream in = async.postAsync("/heal-selector", "application/json", heal, Duration.ofSeconds(5)).get()) {
+                assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("By.id: new"));
+            }
+            assertEquals(2, server.healCalls.get());
+            assertEquals(0, server.gzipRequests.get());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestElementCapture {
+
+    // JavascriptExecutor answering every script with a fixed result and remembering the calls
+    private static final class ScriptedDriver extends FakeWebDriver {
+        final Object result;
+        final List<Object[]> calls = new ArrayList<>();
+
+        ScriptedDriver(Object result) {
+            super("https://example.com/login?next=1");
+            this.result = result;
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            calls.add(new Object[]{script, args});
+            return result;
+        }
+    }
+
+    @Test
+    public void testAttributesFromOneScriptCall() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("id", "user");
+        attributes.put("maxlength", 20L);
+        attributes.put("disabled", null);
+        Map<String, Object> captured = new HashMap<>();
+        captured.put("attributes", attributes);
+        captured.put("tag_name", "input");
+        captured.put("text", null);
+        captured.put("page_url", "https://example.com/login");
+        captured.put("outer_html", "<input id=\"user\">");
+        captured.put("bounding_box", "10,20,200,30");
+        ScriptedDriver driver = new ScriptedDriver(captured);
+        FakeWebDriver.FakeElement element = driver.addElement("By.id: user", "input", "", Map.of("id", "user"));
+
+        Map<String, String> result = ElementCapture.capture(driver, element);
+
+        assertEquals(1, driver.calls.size());
+        assertEquals(ElementCapture.CAPTURE_SCRIPT, driver.calls.get(0)[0]);
+        assertSame(element, ((Object[]) driver.calls.get(0)[1])[0]);
+        assertEquals("user", result.get("id"));
+        // Non-string values are stringified, nulls become empty strings
+        assertEquals("20", result.get("maxlength"));
+        assertEquals("", result.get("disabled"));
+        assertEquals("", result.get("text"));
+        assertEquals("input", result.get("tag_name"));
+        assertEquals("https://example.com/login", result.get("page_url"));
+        assertEquals("<input id=\"user\">", result.get("outer_html"));
+        assertEquals("10,20,200,30", result.get("bounding_box"));
+        assertEquals(8, result.size());
+    }
+
+    @Test
+    public void testFallsBackWhenScriptReturnsNoMap() {
+        for (Object scriptResult : new Object[]{null, "unexpected", List.of("a")}) {
+            ScriptedDriver driver = new ScriptedDriver(scriptResult);
+            FakeWebDriver.FakeElement element = driver.addElement("By.id: save", "button", "Save", Map.of("id", "save"));
+
+            Map<String, String> result = ElementCapture.capture(driver, element);
+
+            assertEquals("https://example.com/login?next=1", result.get("page_url"));
+            assertEquals("button", result.get("tag_name"));
+            assertEquals("Save", result.get("text"));
+            // No outerHTML attribute on the element
+            assertEquals("", result.get("outer_html"));
+            assertNull(result.get("bounding_box"));
+            assertNull(result.get("id"));
+        }
+    }
+}
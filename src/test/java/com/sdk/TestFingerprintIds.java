@@ -0,0 +1,37 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFingerprintIds {
+
+    @Test
+    public void testVersionAndVariant() {
+        UUID id = FingerprintIds.next();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    public void testTimestampAndOrdering() {
+        long millis = 1_760_000_000_000L;
+        UUID earlier = FingerprintIds.next(millis);
+        UUID later = FingerprintIds.next(millis + 1);
+        assertEquals(millis, FingerprintIds.timestamp(earlier));
+        // Time-ordered when compared as unsigned 128 bit values, i.e. by their string form
+        assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+    }
+
+    @Test
+    public void testUnique() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(ids.add(FingerprintIds.next()));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.sdk;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFingerprintIterator {
+
+    // Answers GETs from a fixed list of bodies and records the endpoints requested
+    private static class CannedTransport implements SelfHealingTransport {
+        final List<String> bodies;
+        final List<String> requested = new ArrayList<>();
+
+        CannedTransport(String... bodies) {
+            this.bodies = new ArrayList<>(List.of(bodies));
+        }
+
+        @Override
+        public InputStream post(String endpoint, String contentType, byte[] body) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public InputStream get(String endpoint) throws IOException {
+            requested.add(endpoint);
+            if (bodies.isEmpty()) {
+                throw new IOException("unexpected request " + endpoint);
+            }
+            return new ByteArrayInputStream(bodies.remove(0).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String fp(String page, String text) {
+        return "{\"id\":null,\"attributes\":{\"page_url\":\"" + page + "\",\"text\":\"" + text + "\"},\"selectors\":[]}";
+    }
+
+    @Test
+    public void testFollowsCursors() {
+        CannedTransport transport = new CannedTransport(
+                "{\"fingerprints\":[" + fp("https://a.com", "one") + "," + fp("https://a.com", "two") + "],\"next_cursor\":\"c1\"}",
+                "{\"next_cursor\":null,\"fingerprints\":[" + fp("https://a.com", "three") + "]}");
+        SelfHealingSdk sdk = new SelfHealingSdk(transport);
+
+        try (Stream<SelfHealingSdk.ElementFingerprint> stream = sdk.streamFingerprints(null)) {
+            assertEquals(List.of("one", "two", "three"),
+                    stream.map(f -> f.attributes.get("text")).collect(Collectors.toList()));
+        }
+        assertEquals(2, transport.requested.size());
+        assertTrue(transport.requested.get(1).contains("cursor=c1"));
+    }
+
+    @Test
+    public void testPlainArrayAndPageFilter() throws IOException {
+        CannedTransport transport = new CannedTransport(
+                "[" + fp("https://a.com/login", "one") + "," + fp("https://b.com", "two") + "]");
+        SelfHealingSdk sdk = new SelfHealingSdk(transport);
+
+        try (FingerprintIterator it = sdk.iterateFingerprints("https://A.com/login/")) {
+            assertTrue(it.hasNext());
+            assertEquals("one", it.next().attributes.get("text"));
+            assertFalse(it.hasNext());
+        }
+        assertTrue(transport.requested.get(0).contains("page_url="));
+
+        assertEquals(1, new SelfHealingSdk(new CannedTransport("[" + fp("https://a.com", "x") + "]")).getAllFingerprints().size());
+    }
+
+    @Test
+    public void testStopsOnRepeatedCursor() {
+        String page = "{\"fingerprints\":[" + fp("https://a.com", "again") + "],\"next_cursor\":\"c1\"}";
+        CannedTransport transport = new CannedTransport(
+                "{\"fingerprints\":[" + fp("https://a.com", "one") + "],\"next_cursor\":\"c1\"}", page, page, page);
+        SelfHealingSdk sdk = new SelfHealingSdk(transport);
+
+        try (Stream<SelfHealingSdk.ElementFingerprint> stream = sdk.streamFingerprints(null)) {
+            assertEquals(List.of("one", "again"), stream.map(f -> f.attributes.get("text")).collect(Collectors.toList()));
+        }
+        assertEquals(2, transport.requested.size());
+    }
+
+    // Served by a real HTTP server through JdkHttpTransport: the first half of a body much larger than the
+    // transport's chunks and the parser buffer, then nothing until the test has read that half. The iterator
+    // only gets through it if the body is parsed while it arrives rather than buffered whole.
+    @Test
+    public void testReadsLargeBodyWhileItArrives() throws Exception {
+        int half = 2_000;
+        CountDownLatch firstHalfRead = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/all-fingerprints", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                StringBuilder first = new StringBuilder("{\"fingerprints\":[");
+                for (int i = 0; i < half; i++) {
+                    first.append(i == 0 ? "" : ",").append(fp("https://a.com", "text-" + i + "-" + "x".repeat(100)));
+                }
+                out.write(first.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                firstHalfRead.await(10, TimeUnit.SECONDS);
+                StringBuilder rest = new StringBuilder();
+                for (int i = half; i < 2 * half; i++) {
+                    rest.append(',').append(fp("https://a.com", "text-" + i));
+                }
+                rest.append("],\"next_cursor\":null}");
+                out.write(rest.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(baseUrl, JdkHttpTransport.sharedClient(), Duration.ofSeconds(20)));
+            long start = System.nanoTime();
+            try (FingerprintIterator it = sdk.iterateFingerprints(null)) {
+                for (int i = 0; i < half; i++) {
+                    assertTrue(it.next().attributes.get("text").startsWith("text-" + i + "-"));
+                }
+                assertTrue(System.nanoTime() - start < 5_000_000_000L, "waited for the rest of the body");
+                firstHalfRead.countDown();
+                int rest = 0;
+                while (it.hasNext()) {
+                    it.next();
+                    rest++;
+                }
+                assertEquals(half, rest);
+            }
+        } finally {
+            firstHalfRead.countDown();
+            server.stop(0);
+        }
+    }
+}
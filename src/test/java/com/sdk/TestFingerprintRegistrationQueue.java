@@ -0,0 +1,130 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFingerprintRegistrationQueue {
+
+    private static SelfHealingSdk.ElementFingerprint fingerprint(int i) {
+        SelfHealingSdk.ElementFingerprint fingerprint = new SelfHealingSdk.ElementFingerprint();
+        fingerprint.id = UUID.randomUUID();
+        fingerprint.selectors = List.of("css: #field-" + i);
+        fingerprint.attributes = new HashMap<>(Map.of("page_url", "https://example.com/form", "id", "field-" + i));
+        return fingerprint;
+    }
+
+    @Test
+    public void testCoalescesIntoBatches() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            // Long linger: the batches fill up before they are sent
+            FingerprintRegistrationQueue queue = new FingerprintRegistrationQueue(sdk, 100, 10, 2_000, 0, 5_000);
+            for (int i = 0; i < 30; i++) {
+                assertTrue(queue.submit(fingerprint(i)));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (queue.getSentCount() < 30 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(30, queue.getSentCount());
+            assertEquals(3, server.registerCalls.get());
+            assertEquals(30, server.getFingerprints().size());
+            queue.close();
+        }
+    }
+
+    @Test
+    public void testFullQueueDropsAndReportsIt() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            // The worker is stuck on its first request while the queue fills up
+            server.setLatency(1_000, 0);
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            FingerprintRegistrationQueue queue = new FingerprintRegistrationQueue(sdk, 2, 1, 0, 0, 0);
+            int rejected = 0;
+            for (int i = 0; i < 6; i++) {
+                if (!queue.submit(fingerprint(i))) {
+                    rejected++;
+                }
+            }
+            // At most one unit taken by the worker and two queued
+            assertTrue(rejected >= 3, "rejected " + rejected);
+            assertEquals(rejected, queue.getDroppedCount());
+            assertEquals(6 - rejected, queue.getEnqueuedCount());
+            queue.close();
+        }
+    }
+
+    @Test
+    public void testCloseFlushesPendingRegistrations() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            FingerprintRegistrationQueue queue = new FingerprintRegistrationQueue(sdk, 100, 50, 60_000, 0, 5_000);
+            for (int i = 0; i < 5; i++) {
+                queue.submit(fingerprint(i));
+            }
+            long start = System.nanoTime();
+            queue.close();
+            // Sent by close(), without waiting out the linger
+            assertTrue(System.nanoTime() - start < 3_000_000_000L);
+            assertEquals(5, queue.getSentCount());
+            assertEquals(5, server.getFingerprints().size());
+            assertFalse(queue.submit(fingerprint(6)));
+        }
+    }
+
+    @Test
+    public void testOneByOneRetryDoesNotResendAcceptedFingerprints() throws Exception {
+        // No batch endpoint, and the third single registration fails once
+        List<String> accepted = new CopyOnWriteArrayList<>();
+        AtomicInteger singleCalls = new AtomicInteger();
+        SelfHealingTransport transport = new SelfHealingTransport() {
+            @Override
+            public InputStream post(String endpoint, String contentType, byte[] body) throws IOException {
+                if (endpoint.equals("/register-fingerprints")) {
+                    throw new SelfHealingHttpException(404);
+                }
+                if (singleCalls.incrementAndGet() == 3) {
+                    throw new SelfHealingHttpException(500);
+                }
+                String json = new String(body, StandardCharsets.UTF_8);
+                int id = json.indexOf("field-");
+                accepted.add(json.substring(id, json.indexOf('"', id)));
+                return new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public InputStream get(String endpoint) throws IOException {
+                return new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        SelfHealingSdk sdk = new SelfHealingSdk(transport, WireFormat.JSON);
+        FingerprintRegistrationQueue queue = new FingerprintRegistrationQueue(sdk, 100, 10, 0, 2, 5_000);
+        List<SelfHealingSdk.ElementFingerprint> page = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            page.add(fingerprint(i));
+        }
+        assertTrue(queue.submitAll(page));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (queue.getSentCount() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        queue.close();
+
+        assertEquals(5, queue.getSentCount());
+        assertEquals(1, queue.getFailedBatchCount());
+        assertEquals(List.of("field-0", "field-1", "field-2", "field-3", "field-4"), accepted);
+    }
+}
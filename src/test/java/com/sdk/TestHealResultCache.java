@@ -0,0 +1,127 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHealResultCache {
+
+    private static SelfHealingSdk.HealResponse healed(String selector) {
+        SelfHealingSdk.HealResponse response = new SelfHealingSdk.HealResponse();
+        response.healed_selector = selector;
+        response.confidence = 0.9f;
+        return response;
+    }
+
+    @Test
+    public void testKeyNormalizesPageUrl() {
+        assertEquals(HealResultCache.key("By.id: save", "https://Example.com:443/login/?next=x#top"),
+                HealResultCache.key("By.id: save", "https://example.com/login"));
+        assertNotEquals(HealResultCache.key("By.id: save", "https://example.com/login"),
+                HealResultCache.key("By.id: save", "https://example.com/signup"));
+    }
+
+    @Test
+    public void testPagesDifferingOnlyByQueryShareResults() {
+        HealResultCache cache = new HealResultCache(10, 60_000, 60_000);
+        assertEquals(HealResultCache.key("By.id: save", "https://example.com/orders?tab=1"),
+                HealResultCache.key("By.id: save", "https://example.com/orders?tab=2"));
+        cache.put(HealResultCache.key("By.id: save", "https://example.com/orders?tab=1"), healed("By.id: save-btn"));
+        assertEquals("By.id: save-btn", cache.get(HealResultCache.key("By.id: save", "https://example.com/orders?tab=2")).healed_selector);
+        // A hash route is another page
+        assertNull(cache.get(HealResultCache.key("By.id: save", "https://example.com/orders#/archive")));
+    }
+
+    @Test
+    public void testConcurrentAccessStaysBounded() throws Exception {
+        HealResultCache cache = new HealResultCache(64, 60_000, 60_000);
+        int threads = 16;
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(workers.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        String key = "key-" + ((thread * 31 + i) % 200);
+                        if (cache.get(key) == null) {
+                            cache.put(key, healed("By.id: " + key));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        assertTrue(cache.size() <= 64 + threads, "size " + cache.size());
+        assertTrue(cache.getEvictionCount() > 0);
+        assertEquals(16 * 5_000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    public void testPositiveAndNegativeEntries() {
+        HealResultCache cache = new HealResultCache(10, 60_000, 60_000);
+        String key = HealResultCache.key("By.id: save", "https://example.com");
+
+        assertNull(cache.get(key));
+        cache.put(key, healed("By.id: save-btn"));
+        assertEquals("By.id: save-btn", cache.get(key).healed_selector);
+
+        cache.putNegative(key);
+        SelfHealingSdk.HealResponse negative = cache.get(key);
+        assertNotNull(negative);
+        assertNull(negative.healed_selector);
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getNegativeHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testCandidateOnlyResponseIsPositive() throws InterruptedException {
+        // Negative TTL so short that a response cached as negative would already be gone
+        HealResultCache cache = new HealResultCache(10, 60_000, 1);
+        String key = HealResultCache.key("By.id: save", "https://example.com");
+        SelfHealingSdk.HealCandidate candidate = new SelfHealingSdk.HealCandidate();
+        candidate.selector = "By.cssSelector: button.save";
+        candidate.confidence = 0.8f;
+        SelfHealingSdk.HealResponse response = new SelfHealingSdk.HealResponse();
+        response.candidates = List.of(candidate);
+
+        cache.put(key, response);
+        Thread.sleep(5);
+        SelfHealingSdk.HealResponse cached = cache.get(key);
+        assertSame(response, cached);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getNegativeHitCount());
+    }
+
+    @Test
+    public void testSizeAndTtlEviction() throws InterruptedException {
+        HealResultCache cache = new HealResultCache(2, 60_000, 1);
+        cache.put("a", healed("By.id: a"));
+        cache.put("b", healed("By.id: b"));
+        cache.get("a");
+        cache.put("c", healed("By.id: c"));
+
+        // "b" was least recently used
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.putNegative("d");
+        Thread.sleep(5);
+        assertNull(cache.get("d"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHealSnapshot {
+
+    private static SelfHealingSdk.HealRequest request(String selector, String pageUrl) {
+        SelfHealingSdk.HealRequest request = new SelfHealingSdk.HealRequest();
+        request.failed_selector = selector;
+        request.context = Map.of("page_url", pageUrl);
+        return request;
+    }
+
+    @Test
+    public void testRecordThenReplayWithoutNetwork(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("heal-snapshot.bin");
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.addHealRule("By.id: old-login", "By.id: login");
+
+            SelfHealingSdk recorder = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            HealSnapshot recording = HealSnapshot.record(file);
+            recorder.setHealSnapshot(recording);
+            assertEquals("By.id: login", recorder.healSelector(request("By.id: old-login", "https://example.com/login?next=1")).healed_selector);
+            assertNull(recorder.healSelector(request("By.id: gone", "https://example.com/login")).healed_selector);
+            recording.record("By.name: q", "https://example.com/search", "By.id: query", 0.8f);
+            recording.write();
+            assertEquals(2, server.healCalls.get());
+
+            SelfHealingSdk replayer = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            HealSnapshot replay = HealSnapshot.replay(file);
+            replayer.setHealSnapshot(replay);
+            assertEquals(3, replay.size());
+
+            SelfHealingSdk.HealResponse healed = replayer.healSelector(request("By.id: old-login", "https://example.com/login?next=2"));
+            assertEquals("By.id: login", healed.healed_selector);
+            assertEquals(0.9f, healed.confidence);
+            // Unhealable is a recorded decision too
+            assertNull(replayer.healSelector(request("By.id: gone", "https://example.com/login")).healed_selector);
+            assertEquals("By.id: query", replayer.healSelector(request("By.name: q", "https://example.com/search")).healed_selector);
+
+            assertThrows(HealSnapshotMissException.class, () -> replayer.healSelector(request("By.id: new", "https://example.com/login")));
+            assertEquals(2, server.healCalls.get());
+            assertEquals(3, replay.getHitCount());
+            assertEquals(1, replay.getMissCount());
+            assertEquals(List.of("https://example.com/login\nBy.id: new"), List.copyOf(replay.getUnknownKeys()));
+        }
+    }
+
+    @Test
+    public void testWriteMergesExistingDecisions(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("snapshots/heal.bin");
+        HealSnapshot first = HealSnapshot.record(file);
+        for (int i = 0; i < 500; i++) {
+            first.record("By.id: field-" + i, "https://example.com/page-" + (i % 7), "By.name: field-" + i, 0.7f);
+        }
+        first.write();
+
+        // A later run (or another fork) changes one decision and adds one
+        HealSnapshot second = HealSnapshot.record(file);
+        second.record("By.id: field-3", "https://example.com/page-3", "By.cssSelector: #field-3", 0.95f);
+        second.record("By.id: extra", "https://example.com/page-0", "By.id: extra-2", 0.6f);
+        second.write();
+
+        HealSnapshot replay = HealSnapshot.replay(file);
+        assertEquals(501, replay.size());
+        for (int i = 0; i < 500; i++) {
+            List<SelfHealingSdk.HealCandidate> candidates = replay.lookup(HealResultCache.key("By.id: field-" + i, "https://example.com/page-" + (i % 7)));
+            assertNotNull(candidates, "field-" + i);
+            assertEquals(i == 3 ? "By.cssSelector: #field-3" : "By.name: field-" + i, candidates.get(0).selector);
+        }
+        assertEquals("By.id: extra-2", replay.lookup(HealResultCache.key("By.id: extra", "https://example.com/page-0")).get(0).selector);
+        assertNull(replay.lookup(HealResultCache.key("By.id: field-1", "https://example.com/page-2")));
+    }
+}
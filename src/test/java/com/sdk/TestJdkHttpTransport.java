@@ -0,0 +1,122 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestJdkHttpTransport {
+
+    private static final byte[] HEAL_BODY = "{\"failed_selector\":\"By.id: old\",\"context\":{\"page_url\":\"https://example.com\"}}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static SelfHealingSdk.HealRequest request(String selector) {
+        SelfHealingSdk.HealRequest request = new SelfHealingSdk.HealRequest();
+        request.failed_selector = selector;
+        request.context = Map.of("page_url", "https://example.com/login");
+        return request;
+    }
+
+    @Test
+    public void testDeadlineCoversStalledBody() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.addHealRule("By.id: old", "By.id: new-" + "x".repeat(200));
+            server.setBodyStall(3_000);
+            JdkHttpTransport transport = new JdkHttpTransport(server.baseUrl());
+
+            long start = System.nanoTime();
+            assertThrows(HttpTimeoutException.class, () -> {
+                try (InputStream in = transport.post("/heal-selector", "application/json", HEAL_BODY, Duration.ofMillis(300))) {
+                    in.readAllBytes();
+                }
+            });
+            try (InputStream in = transport.postAsync("/heal-selector", "application/json", HEAL_BODY, Duration.ofMillis(300)).get()) {
+                assertThrows(HttpTimeoutException.class, in::readAllBytes);
+            }
+            assertTrue(System.nanoTime() - start < 2_000_000_000L, "waited for the stalled bodies");
+
+            // The same call completes when the stall fits in the deadline
+            server.setBodyStall(50);
+            try (InputStream in = transport.post("/heal-selector", "application/json", HEAL_BODY, Duration.ofSeconds(5))) {
+                assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("By.id: new-"));
+            }
+        }
+    }
+
+    @Test
+    public void testBodyIsStreamedWhileItArrives() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.addHealRule("By.id: old", "By.id: new-" + "x".repeat(200));
+            server.setBodyStall(1_500);
+            JdkHttpTransport transport = new JdkHttpTransport(server.baseUrl());
+
+            long start = System.nanoTime();
+            try (InputStream in = transport.post("/heal-selector", "application/json", HEAL_BODY, Duration.ofSeconds(5))) {
+                // The first half is readable while the server still holds back the rest
+                assertTrue(in.read(new byte[64]) > 0);
+                assertTrue(System.nanoTime() - start < 1_000_000_000L, "read waited for the whole body");
+                assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("x".repeat(50)));
+            }
+        }
+    }
+
+    @Test
+    public void testErrorStatuses() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            JdkHttpTransport transport = new JdkHttpTransport(server.baseUrl());
+            assertEquals(404, assertThrows(SelfHealingHttpException.class,
+                    () -> transport.get("/no-such-endpoint", Duration.ofSeconds(2))).getStatusCode());
+
+            server.setFailureRate(1.0, 500);
+            assertEquals(500, assertThrows(SelfHealingHttpException.class,
+                    () -> transport.post("/heal-selector", "application/json", HEAL_BODY, Duration.ofSeconds(2))).getStatusCode());
+            ExecutionException async = assertThrows(ExecutionException.class,
+                    () -> transport.postAsync("/heal-selector", "application/json", HEAL_BODY, Duration.ofSeconds(2)).get());
+            assertEquals(500, ((SelfHealingHttpException) async.getCause()).getStatusCode());
+
+            // Connection still usable after error responses
+            server.setFailureRate(0, 500);
+            transport.get("/health", Duration.ofSeconds(2)).close();
+        }
+    }
+
+    @Test
+    public void testHedgedHealRequest() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.addHealRule("By.id: old", "By.id: new");
+            server.setLatency(200, 0);
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            sdk.setHedgeAfterMs(50);
+
+            assertEquals("By.id: new", sdk.healSelector(request("By.id: old")).healed_selector);
+            assertEquals(1, sdk.getHedgedRequestCount());
+            // The losing copy is still sleeping in the stub when the winner returns
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (server.healCalls.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, server.healCalls.get());
+        }
+    }
+
+    @Test
+    public void testHedgedHealFallsBackToJson() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.addHealRule("By.id: old", "By.id: new");
+            server.setAcceptBinaryFormats(false);
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()), WireFormat.SMILE);
+            sdk.setHedgeAfterMs(1_000);
+
+            assertEquals("By.id: new", sdk.healSelector(request("By.id: old")).healed_selector);
+            assertEquals(WireFormat.JSON, sdk.getWireFormat());
+            assertEquals(1, server.requestsByContentType.get(WireFormat.SMILE.contentType()).get());
+            assertEquals(1, server.requestsByContentType.get(WireFormat.JSON.contentType()).get());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_000, histogram.percentile(50), 5_000_000 / 50.0);
+        assertEquals(9_900_000, histogram.percentile(99), 9_900_000 / 50.0);
+        assertEquals(10_000_000, histogram.percentile(100));
+    }
+
+    @Test
+    public void testBucketBoundsCoverValues() {
+        for (long value : new long[]{0, 1, 63, 64, 127, 128, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "value " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value, "value " + value);
+            }
+        }
+    }
+}
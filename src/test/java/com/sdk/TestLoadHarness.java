@@ -0,0 +1,61 @@
+package com.sdk;
+
+import org.aspectj.lang.Aspects;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLoadHarness {
+
+    @Test
+    public void testParsesTrace() throws Exception {
+        List<LoadHarness.TraceEntry> entries = LoadHarness.parse(new StringReader(
+                "# comment\n"
+                        + "https://app/login\tBy.id: username\ttrue\n"
+                        + "\n"
+                        + "https://app/login\tBy.id: submit\tfalse\tBy.cssSelector: .submit\n"
+                        + "https://app/login\tBy.id: gone\tfalse\n"));
+        assertEquals(3, entries.size());
+        assertTrue(entries.get(0).present);
+        assertEquals("By.cssSelector: .submit", entries.get(1).healedSelector);
+        assertNull(entries.get(2).healedSelector);
+        assertThrows(IOException.class, () -> LoadHarness.parse(new StringReader("https://app\tBy.id: x\n")));
+    }
+
+    @Test
+    public void testReplaysSampleTrace() throws Exception {
+        List<LoadHarness.TraceEntry> trace = LoadHarness.load("/traces/sample.trace");
+        long healable = trace.stream().filter(e -> !e.present && e.healedSelector != null).count();
+        long unhealable = trace.stream().filter(e -> !e.present && e.healedSelector == null).count();
+        assertTrue(healable > 0);
+        assertTrue(unhealable > 0);
+        SelfHealingSeleniumAspect aspect = Aspects.aspectOf(SelfHealingSeleniumAspect.class);
+        int openBefore = aspect.openSessionCount();
+        SelfHealingSdk sdkBefore = aspect.getSdk();
+
+        try (StubHealingServer server = new StubHealingServer()) {
+            LoadHarness.Result result = new LoadHarness(trace, server, 0).run(4, 8);
+            System.out.println("[TestLoadHarness] " + result.summary());
+
+            assertEquals(8L * trace.size(), result.lookups);
+            // Every lookup recorded with a healed selector is healed, through the stub or the local engine
+            assertEquals(8 * healable, result.healed);
+            assertEquals(8 * unhealable, result.failures);
+            // The unhealable ones always reach the stub, registrations are flushed to it by the end of run()
+            assertTrue(server.healCalls.get() > 0);
+            assertTrue(server.registerCalls.get() > 0);
+            assertFalse(server.getFingerprints().isEmpty());
+
+            assertTrue(result.throughput() > 0);
+            assertTrue(result.latency.percentile(50) <= result.latency.percentile(99));
+            assertTrue(result.latency.percentile(99) <= result.latency.getMax());
+            assertTrue(result.toJson().contains("\"lookups\":" + result.lookups));
+        }
+        assertSame(sdkBefore, aspect.getSdk());
+        assertEquals(openBefore, aspect.openSessionCount());
+    }
+}
@@ -0,0 +1,125 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLocalHealingEngine {
+
+    private static SelfHealingSdk.ElementFingerprint fingerprint() {
+        SelfHealingSdk.ElementFingerprint fp = new SelfHealingSdk.ElementFingerprint();
+        fp.attributes = Map.of("page_url", "https://example.com/login?x=1", "tag_name", "button",
+                "id", "save", "class", "btn btn-primary", "text", "Save changes", "type", "submit");
+        fp.selectors = List.of("css: #save");
+        return fp;
+    }
+
+    @Test
+    public void testLookupByIndexes() {
+        LocalHealingEngine engine = new LocalHealingEngine();
+        engine.index(fingerprint(), "By.id: save");
+
+        assertNotNull(engine.lookup("By.id: save", "https://example.com/login"));
+        assertNotNull(engine.lookup("By.cssSelector: #save", "https://example.com/login"));
+        assertNotNull(engine.lookup("By.linkText: Save", "https://example.com/login"));
+        assertNull(engine.lookup("By.id: save", "https://example.com/other"));
+        assertNull(engine.lookup("By.id: cancel", "https://example.com/login"));
+    }
+
+    @Test
+    public void testScoring() {
+        LocalHealingEngine.IndexedFingerprint stored = new LocalHealingEngine.IndexedFingerprint(fingerprint().attributes);
+
+        Map<String, Object> renamed = Map.of("tag_name", "button", "text", "Save changes",
+                "attributes", Map.of("id", "save-v2", "class", "btn btn-primary", "type", "submit"));
+        Map<String, Object> unrelated = Map.of("tag_name", "a", "text", "Help",
+                "attributes", Map.of("class", "link"));
+
+        float renamedScore = LocalHealingEngine.score(stored, renamed);
+        assertTrue(renamedScore > 0.6f, "score " + renamedScore);
+        assertTrue(LocalHealingEngine.score(stored, unrelated) < 0.1f);
+    }
+
+    @Test
+    public void testReindexReplacesEntry() {
+        LocalHealingEngine engine = new LocalHealingEngine();
+        // Registration, then the same element again from a page capture and a prefetch
+        engine.index(fingerprint(), "By.id: save");
+        engine.index(fingerprint(), null);
+        engine.index(fingerprint(), "By.cssSelector: #save");
+
+        // Still the only button on the page
+        assertNotNull(engine.lookup("By.tagName: button", "https://example.com/login"));
+        assertNotNull(engine.lookup("By.linkText: Save changes", "https://example.com/login"));
+        assertNotNull(engine.lookup("By.id: save", "https://example.com/login"));
+
+        SelfHealingSdk.ElementFingerprint other = fingerprint();
+        other.attributes = Map.of("page_url", "https://example.com/login", "tag_name", "button", "id", "cancel", "text", "Cancel");
+        other.selectors = List.of("css: #cancel");
+        engine.index(other, "By.id: cancel");
+        assertNull(engine.lookup("By.tagName: button", "https://example.com/login"));
+    }
+
+    @Test
+    public void testHealedElementMustBeUniqueAndVisible() {
+        LocalHealingEngine engine = new LocalHealingEngine();
+        engine.index(fingerprint(), "By.id: save");
+        FakeWebDriver driver = new FakeWebDriver("https://example.com/login");
+        FakeWebDriver.FakeElement renamed = driver.addElement("By.id: save-v2", "button", "Save changes",
+                Map.of("id", "save-v2", "class", "btn btn-primary", "type", "submit"));
+
+        LocalHealingEngine.LocalHealResult result = engine.heal(driver, "By.id: save", "https://example.com/login");
+        assertNotNull(result);
+        assertSame(renamed, result.element);
+        assertEquals("By.id: save-v2", result.healedSelector);
+
+        // Two elements with that id: no local heal, the service decides
+        driver.setMatchCount("By.id: save-v2", 2);
+        assertNull(engine.heal(driver, "By.id: save", "https://example.com/login"));
+        driver.setMatchCount("By.id: save-v2", 1);
+        assertEquals(1, engine.getUnverifiedCount());
+        // Hidden: scored down, and never returned as a confident heal
+        renamed.visible = false;
+        LocalHealingEngine.LocalHealResult hidden = engine.heal(driver, "By.id: save", "https://example.com/login");
+        assertTrue(hidden == null || hidden.confidence < SelfHealingConfig.LOCAL_HEAL_MIN_CONFIDENCE);
+    }
+
+    private static SelfHealingSdk.ElementFingerprint field(String page, int i) {
+        SelfHealingSdk.ElementFingerprint fp = new SelfHealingSdk.ElementFingerprint();
+        fp.attributes = Map.of("page_url", page, "tag_name", "input", "id", "field-" + i);
+        fp.selectors = List.of("css: #field-" + i);
+        return fp;
+    }
+
+    @Test
+    public void testIndexIsBounded() {
+        LocalHealingEngine engine = new LocalHealingEngine(100, 5, 12);
+        // Per page: further elements are skipped, the same element indexed again still replaces its entry
+        for (int i = 0; i < 8; i++) {
+            engine.index(field("https://example.com/a", i), null);
+        }
+        engine.index(field("https://example.com/a", 0), null);
+        assertEquals(5, engine.size());
+        assertEquals(3, engine.getSkippedCount());
+        assertNotNull(engine.lookup("By.id: field-4", "https://example.com/a"));
+        assertNull(engine.lookup("By.id: field-5", "https://example.com/a"));
+
+        // In total: least recently used pages go first
+        for (int i = 0; i < 5; i++) {
+            engine.index(field("https://example.com/b", i), null);
+        }
+        assertNotNull(engine.lookup("By.id: field-0", "https://example.com/a"));
+        for (int i = 0; i < 5; i++) {
+            engine.index(field("https://example.com/c", i), null);
+        }
+        assertEquals(2, engine.pageCount());
+        assertEquals(10, engine.size());
+        assertEquals(1, engine.getEvictedPageCount());
+        assertNull(engine.lookup("By.id: field-0", "https://example.com/b"));
+        assertNotNull(engine.lookup("By.id: field-0", "https://example.com/a"));
+        assertNotNull(engine.lookup("By.id: field-0", "https://example.com/c"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.sdk;
+
+import org.aspectj.lang.Aspects;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPageCapture {
+
+    private static final int ELEMENTS = 40;
+
+    @Test
+    public void testFirstLookupCapturesWholePage() {
+        SelfHealingSeleniumAspect aspect = Aspects.aspectOf(SelfHealingSeleniumAspect.class);
+        aspect.setPageCaptureEnabled(true);
+        FakeWebDriver driver = new FakeWebDriver("https://example.com/catalog");
+        try {
+            for (int i = 0; i < ELEMENTS; i++) {
+                driver.addElement("By.id: item-" + i, "button", "Item " + i, Map.of("id", "item-" + i));
+            }
+            driver.addElement("By.cssSelector: .search", "input", "", Map.of("class", "search"));
+            driver.addElement("By.name: q", "input", "", Map.of("name", "q"));
+            long capturesBefore = aspect.getPageCaptureCount();
+
+            driver.findElement(By.id("item-0"));
+            assertEquals(1, driver.scriptCalls.get());
+            assertEquals(capturesBefore + 1, aspect.getPageCaptureCount());
+            assertTrue(aspect.sessionFor(driver).isPageCaptured());
+
+            // Every other interactable element was registered with the first lookup
+            for (int i = 1; i < ELEMENTS; i++) {
+                driver.findElement(By.id("item-" + i));
+            }
+            driver.findElement(By.cssSelector(".search"));
+            driver.findElement(By.name("q"));
+            assertEquals(1, driver.scriptCalls.get());
+
+            // A page reached by navigation is captured once as well
+            driver.get("https://example.com/cart");
+            driver.findElement(By.id("item-3"));
+            driver.findElement(By.id("item-4"));
+            assertEquals(2, driver.scriptCalls.get());
+            assertEquals(capturesBefore + 2, aspect.getPageCaptureCount());
+        } finally {
+            aspect.setPageCaptureEnabled(SelfHealingConfig.PAGE_CAPTURE_ENABLED);
+            driver.quit();
+        }
+    }
+
+    @Test
+    public void testBulkUnitIsSentInOneRequest() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            FingerprintRegistrationQueue queue = new FingerprintRegistrationQueue(sdk, 100, 10, 0, 0, 5_000);
+            List<SelfHealingSdk.ElementFingerprint> page = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                SelfHealingSdk.ElementFingerprint fingerprint = new SelfHealingSdk.ElementFingerprint();
+                fingerprint.id = UUID.randomUUID();
+                fingerprint.selectors = List.of("css: #item-" + i);
+                fingerprint.attributes = new HashMap<>(Map.of("page_url", "https://example.com/catalog", "id", "item-" + i));
+                page.add(fingerprint);
+            }
+
+            // Larger than the batch size, still not split
+            assertTrue(queue.submitAll(page));
+            queue.close();
+            assertEquals(25, queue.getSentCount());
+            assertEquals(1, server.registerCalls.get());
+            assertEquals(25, server.getFingerprints().size());
+        }
+    }
+}
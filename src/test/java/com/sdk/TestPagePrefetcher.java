@@ -0,0 +1,81 @@
+package com.sdk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPagePrefetcher {
+
+    private StubHealingServer server;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new StubHealingServer();
+        server.getFingerprints().add(fingerprint("https://example.com/login", "username"));
+        server.getFingerprints().add(fingerprint("https://example.com/login", "password"));
+        server.getFingerprints().add(fingerprint("https://example.com/settings", "save"));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        server.close();
+    }
+
+    private static SelfHealingSdk.ElementFingerprint fingerprint(String pageUrl, String id) {
+        SelfHealingSdk.ElementFingerprint fp = new SelfHealingSdk.ElementFingerprint();
+        fp.id = FingerprintIds.next();
+        fp.attributes = Map.of("page_url", pageUrl, "id", id, "tag_name", "input");
+        fp.selectors = List.of("css: #" + id);
+        return fp;
+    }
+
+    @Test
+    public void testGetFingerprintsForPage() throws Exception {
+        SelfHealingSdk sdk = new SelfHealingSdk(server.baseUrl());
+        List<SelfHealingSdk.ElementFingerprint> login = sdk.getFingerprintsForPage("https://Example.com/login?next=home");
+        assertEquals(2, login.size());
+        assertEquals(1, server.pageFetchCalls.get());
+    }
+
+    @Test
+    public void testPrefetchOncePerPage() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        PagePrefetcher prefetcher = new PagePrefetcher(new SelfHealingSdk(server.baseUrl()), executor,
+                fp -> received.add(fp.attributes.get("id")));
+
+        assertEquals(2, prefetcher.prefetch("https://example.com/login").join());
+        prefetcher.prefetch("https://example.com/login/#top").join();
+        assertTrue(prefetcher.await("https://example.com/login", 1_000));
+        assertTrue(prefetcher.isPrefetched("https://example.com/login"));
+        assertFalse(prefetcher.await("https://example.com/settings", 1_000));
+
+        assertEquals(List.of("username", "password"), received);
+        assertEquals(1, server.pageFetchCalls.get());
+        assertEquals(1, prefetcher.getFetchedPageCount());
+        assertEquals(2, prefetcher.getFetchedFingerprintCount());
+    }
+
+    @Test
+    public void testFailedFetchIsRetried() {
+        PagePrefetcher prefetcher = new PagePrefetcher(new SelfHealingSdk("http://127.0.0.1:9"), executor, fp -> { });
+        CompletableFuture<Integer> first = prefetcher.prefetch("https://example.com/login");
+        assertFalse(prefetcher.await("https://example.com/login", 5_000));
+        assertTrue(first.isCompletedExceptionally());
+        assertEquals(1, prefetcher.getFailedFetchCount());
+        assertFalse(prefetcher.isPrefetched("https://example.com/login"));
+        // A later navigation tries again instead of keeping the failure
+        assertNotSame(first, prefetcher.prefetch("https://example.com/login"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPageUrls {
+
+    @Test
+    public void testQueryFragmentAndDefaultsDropped() {
+        assertEquals("https://example.com/login", PageUrls.normalize("https://Example.com:443/login/?next=x#top"));
+        assertEquals("http://example.com:8080/a", PageUrls.normalize("http://example.com:8080/a#section-2"));
+        assertEquals("", PageUrls.normalize(null));
+        assertEquals("about:blank", PageUrls.normalize("about:blank"));
+    }
+
+    @Test
+    public void testHashRoutesAreSeparatePages() {
+        assertEquals("https://app.com#/login", PageUrls.normalize("https://app.com/#/login"));
+        assertNotEquals(PageUrls.normalize("https://app.com/#/login"), PageUrls.normalize("https://app.com/#/settings"));
+        assertEquals("https://app.com#/settings", PageUrls.normalize("https://app.com/?x=1#/settings/?tab=2"));
+        assertEquals("https://app.com#!/users/7", PageUrls.normalize("https://APP.com#!/users/7/"));
+        // The app root, with or without route marker
+        assertEquals("https://app.com", PageUrls.normalize("https://app.com/#/"));
+        assertEquals(PageUrls.normalize("https://app.com/"), PageUrls.normalize("https://app.com/#!"));
+
+        assertNotEquals(HealResultCache.key("By.id: save", "https://app.com/#/login"),
+                HealResultCache.key("By.id: save", "https://app.com/#/settings"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRegistrationJournal {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testSharedBetweenInstances() throws Exception {
+        Path file = dir.resolve("journal.bin");
+        // Two instances on one file behave like two forked JVMs
+        try (RegistrationJournal first = new RegistrationJournal(file, 100);
+             RegistrationJournal second = new RegistrationJournal(file, 100)) {
+            first.record("By.id: save", Map.of());
+            assertTrue(second.contains("By.id: save"));
+            assertFalse(second.contains("By.id: cancel"));
+
+            second.record("By.id: cancel", Map.of());
+            assertTrue(first.contains("By.id: cancel"));
+        }
+
+        // And survives a restart
+        try (RegistrationJournal reopened = new RegistrationJournal(file, 100)) {
+            assertEquals(2, reopened.size());
+        }
+    }
+
+    @Test
+    public void testStopsRecordingWhenFull() throws Exception {
+        try (RegistrationJournal journal = new RegistrationJournal(dir.resolve("small.bin"), 1)) {
+            journal.record("a", Map.of());
+            journal.record("b", Map.of());
+            assertTrue(journal.contains("a"));
+            assertFalse(journal.contains("b"));
+        }
+    }
+
+    @Test
+    public void testRecordsExpire() throws Exception {
+        try (RegistrationJournal journal = new RegistrationJournal(dir.resolve("ttl.bin"), 100, 200)) {
+            journal.record("By.id: save", Map.of());
+            assertTrue(journal.contains("By.id: save"));
+            Thread.sleep(300);
+            assertFalse(journal.contains("By.id: save"));
+            // Registered again: fresh for another ttl
+            journal.record("By.id: save", Map.of());
+            assertTrue(journal.contains("By.id: save"));
+        }
+    }
+
+    @Test
+    public void testChangedContentIsNotKnown() throws Exception {
+        Path file = dir.resolve("content.bin");
+        Map<String, String> before = Map.of("id", "save", "text", "Save", "bounding_box", "10,10,80,20");
+        try (RegistrationJournal first = new RegistrationJournal(file, 100);
+             RegistrationJournal second = new RegistrationJournal(file, 100)) {
+            first.record("By.id: save", before);
+            // Same content in another layout
+            assertTrue(second.contains("By.id: save", Map.of("text", "Save", "id", "save", "bounding_box", "0,0,80,20")));
+            Map<String, String> after = Map.of("id", "save", "text", "Save draft", "bounding_box", "10,10,80,20");
+            assertFalse(second.contains("By.id: save", after));
+            assertTrue(second.contains("By.id: save"));
+
+            // Re-registered with the new content, which is what counts from now on
+            second.record("By.id: save", after);
+            assertTrue(first.contains("By.id: save", after));
+            assertFalse(first.contains("By.id: save", before));
+        }
+    }
+
+    @Test
+    public void testOnlyAcceptedRegistrationsAreRecorded() throws Exception {
+        try (StubHealingServer server = new StubHealingServer();
+             RegistrationJournal journal = new RegistrationJournal(dir.resolve("sent.bin"), 100)) {
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            FingerprintRegistrationQueue queue = new FingerprintRegistrationQueue(sdk, 100, 10, 0, 0, 5_000);
+
+            server.setFailureRate(1.0, 500);
+            queue.submit(fingerprint("rejected"), () -> journal.record("By.id: rejected", Map.of()));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (queue.getDroppedCount() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, queue.getDroppedCount());
+            assertFalse(journal.contains("By.id: rejected"));
+
+            server.setFailureRate(0, 500);
+            queue.submit(fingerprint("accepted"), () -> journal.record("By.id: accepted", Map.of()));
+            queue.close();
+            assertTrue(journal.contains("By.id: accepted"));
+            assertFalse(journal.contains("By.id: rejected"));
+        }
+    }
+
+    private static SelfHealingSdk.ElementFingerprint fingerprint(String id) {
+        SelfHealingSdk.ElementFingerprint fingerprint = new SelfHealingSdk.ElementFingerprint();
+        fingerprint.id = UUID.randomUUID();
+        fingerprint.selectors = List.of("css: #" + id);
+        fingerprint.attributes = new HashMap<>(Map.of("page_url", "https://example.com/form", "id", id));
+        return fingerprint;
+    }
+}
@@ -0,0 +1,29 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSelectorKeys {
+
+    @Test
+    public void testKeyIsByToString() {
+        By by = By.cssSelector(".btn-primary");
+        assertEquals("By.cssSelector: .btn-primary", SelectorKeys.of(by));
+        assertSame(SelectorKeys.of(by), SelectorKeys.of(by));
+        for (int i = 0; i < 5_000; i++) {
+            By other = By.id("field-" + i);
+            assertEquals(other.toString(), SelectorKeys.of(other));
+        }
+        assertEquals("By.cssSelector: .btn-primary", SelectorKeys.of(by));
+    }
+
+    @Test
+    public void testSelectorParsing() {
+        assertEquals(By.xpath("//a[text()='Sign in']"), SelfHealingSeleniumAspect.parseSelectorString("By.xpath: //a[text()='Sign in']"));
+        assertEquals(".btn", SelfHealingSeleniumAspect.extractCssSelector("By.cssSelector: .btn"));
+        assertNull(SelfHealingSeleniumAspect.extractCssSelector("By.xpath: //button"));
+        assertEquals("//button", SelfHealingSeleniumAspect.extractXPathSelectorFromBy(By.xpath("//button")));
+    }
+}
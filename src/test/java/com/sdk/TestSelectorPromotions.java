@@ -0,0 +1,94 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSelectorPromotions {
+
+    private static final String LOGIN = "https://example.com/login";
+    private static final String SIGNUP = "https://example.com/signup";
+
+    @Test
+    public void testPromotionIsScopedToItsPage() {
+        SelectorPromotions promotions = new SelectorPromotions(0, 0);
+        SessionState session = new SessionState(10, 10);
+        promotions.promote(session.promotionsOf(LOGIN), "By.id: submit", "By.id: login-submit", By.id("login-submit"));
+
+        // Found through the current page, entered under any spelling of its URL
+        session.enterPage("https://Example.com/login/?next=%2F#top");
+        SelectorPromotions.Promotion promotion = session.currentPromotions().get("By.id: submit");
+        assertNotNull(promotion);
+        assertEquals("By.id: login-submit", promotion.healedSelector);
+        assertEquals(By.id("login-submit"), promotion.healedBy);
+        // Same selector on another page is another element
+        session.enterPage(SIGNUP);
+        assertNull(session.currentPromotions().get("By.id: submit"));
+        assertNull(new SessionState(10, 10).currentPromotions());
+
+        promotions.promote(session.promotionsOf(SIGNUP), "By.id: submit", "By.id: signup-submit", By.id("signup-submit"));
+        assertEquals("By.id: login-submit", session.promotionsOf(LOGIN).get("By.id: submit").healedSelector);
+        assertEquals("By.id: signup-submit", session.currentPromotions().get("By.id: submit").healedSelector);
+        assertEquals(2, promotions.getPromotedCount());
+
+        // Same decision again is not a new promotion, an unparsable healed selector is never promoted
+        promotions.promote(session.promotionsOf(LOGIN), "By.id: submit", "By.id: login-submit", By.id("login-submit"));
+        promotions.promote(session.promotionsOf(LOGIN), "By.id: cancel", "garbage", null);
+        assertEquals(2, promotions.getPromotedCount());
+        assertNull(session.promotionsOf(LOGIN).get("By.id: cancel"));
+        assertEquals(1, session.promotionsOf(LOGIN).size());
+    }
+
+    @Test
+    public void testDemoteOnlyRemovesThatPage() {
+        SelectorPromotions promotions = new SelectorPromotions(0, 0);
+        SessionState session = new SessionState(10, 10);
+        SelectorPromotions.Page login = session.promotionsOf(LOGIN);
+        SelectorPromotions.Page signup = session.promotionsOf(SIGNUP);
+        promotions.promote(login, "By.id: submit", "By.id: login-submit", By.id("login-submit"));
+        promotions.promote(signup, "By.id: submit", "By.id: signup-submit", By.id("signup-submit"));
+
+        promotions.demote(login, "By.id: submit", "original selector works again");
+        assertNull(login.get("By.id: submit"));
+        assertNotNull(signup.get("By.id: submit"));
+        assertEquals(1, promotions.getDemotedCount());
+
+        // Nothing left to demote
+        promotions.demote(login, "By.id: submit", "healed selector no longer matches");
+        assertEquals(1, promotions.getDemotedCount());
+        assertEquals(0, login.size());
+        assertEquals(1, signup.size());
+    }
+
+    @Test
+    public void testPromotionsAreForgottenWithTheirPage() {
+        SelectorPromotions promotions = new SelectorPromotions(0, 0);
+        SessionState session = new SessionState(1, 10);
+        promotions.promote(session.promotionsOf(LOGIN), "By.id: submit", "By.id: login-submit", By.id("login-submit"));
+        // Only one page is kept: visiting another evicts the login page and its promotions
+        session.enterPage(SIGNUP);
+        session.enterPage(LOGIN);
+        assertNull(session.currentPromotions().get("By.id: submit"));
+    }
+
+    @Test
+    public void testOriginalIsRetriedPeriodically() throws Exception {
+        SessionState session = new SessionState(10, 10);
+        SelectorPromotions byCount = new SelectorPromotions(3, 0);
+        byCount.promote(session.promotionsOf(LOGIN), "By.id: submit", "By.id: login-submit", By.id("login-submit"));
+        SelectorPromotions.Promotion promotion = session.promotionsOf(LOGIN).get("By.id: submit");
+        assertFalse(byCount.shouldRetryOriginal(promotion));
+        assertFalse(byCount.shouldRetryOriginal(promotion));
+        assertTrue(byCount.shouldRetryOriginal(promotion));
+        assertFalse(byCount.shouldRetryOriginal(promotion));
+
+        SelectorPromotions byTime = new SelectorPromotions(0, 50);
+        byTime.promote(session.promotionsOf(SIGNUP), "By.id: submit", "By.id: signup-submit", By.id("signup-submit"));
+        promotion = session.promotionsOf(SIGNUP).get("By.id: submit");
+        assertFalse(byTime.shouldRetryOriginal(promotion));
+        Thread.sleep(80);
+        assertTrue(byTime.shouldRetryOriginal(promotion));
+        assertFalse(byTime.shouldRetryOriginal(promotion));
+    }
+}
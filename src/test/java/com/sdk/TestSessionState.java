@@ -0,0 +1,225 @@
+package com.sdk;
+
+import org.aspectj.lang.Aspects;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSessionState {
+
+    private static final int PAGES = 3;
+    private static final int SELECTORS = 10;
+    private static final int ROUNDS = 4;
+
+    private static SelfHealingSeleniumAspect aspect() {
+        return Aspects.aspectOf(SelfHealingSeleniumAspect.class);
+    }
+
+    private static FakeWebDriver newDriver() {
+        FakeWebDriver driver = new FakeWebDriver("https://example.com/page-0");
+        for (int i = 0; i < SELECTORS; i++) {
+            driver.addElement("By.id: field-" + i, "input", "", Map.of("id", "field-" + i));
+        }
+        return driver;
+    }
+
+    // One test's worth of work: every page visited ROUNDS times, every selector looked up on it, then quit
+    private static int runSession(FakeWebDriver driver) {
+        int lookups = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int page = 0; page < PAGES; page++) {
+                driver.get("https://example.com/page-" + page);
+                for (int i = 0; i < SELECTORS; i++) {
+                    assertNotNull(driver.findElement(By.id("field-" + i)));
+                    lookups++;
+                }
+            }
+        }
+        driver.quit();
+        return lookups;
+    }
+
+    @Test
+    public void testRegisteredPerPageAndReleasedOnQuit() {
+        SelfHealingSeleniumAspect aspect = aspect();
+        int openBefore = aspect.openSessionCount();
+        FakeWebDriver driver = newDriver();
+
+        driver.get("https://example.com/login");
+        driver.findElement(By.id("field-1"));
+        driver.findElement(By.id("field-1"));
+        assertEquals(1, driver.scriptCalls.get());
+
+        // Same selector on another page is another element
+        driver.get("https://example.com/profile?tab=1");
+        driver.findElement(By.id("field-1"));
+        assertEquals(2, driver.scriptCalls.get());
+        driver.get("https://example.com/login");
+        driver.findElement(By.id("field-1"));
+        assertEquals(2, driver.scriptCalls.get());
+
+        SessionState session = aspect.sessionFor(driver);
+        assertEquals(2, session.pageCount());
+        assertEquals(openBefore + 1, aspect.openSessionCount());
+
+        driver.quit();
+        assertTrue(session.isReleased());
+        assertEquals(0, session.pageCount());
+        assertEquals(openBefore, aspect.openSessionCount());
+    }
+
+    @Test
+    public void testMemoryIsBounded() {
+        SessionState session = new SessionState(2, 3);
+        for (int page = 0; page < 5; page++) {
+            session.enterPage("https://example.com/page-" + page);
+            for (int i = 0; i < 10; i++) {
+                session.markRegistered("https://example.com/page-" + page, "By.id: field-" + i);
+            }
+        }
+        assertEquals(2, session.pageCount());
+        assertEquals(6, session.selectorCount());
+        // A full page forgets older selectors, the latest one is remembered
+        assertTrue(session.isRegistered("By.id: field-9"));
+        session.markRegistered("https://example.com/page-4", "By.id: field-10");
+        assertTrue(session.isRegistered("By.id: field-10"));
+        assertEquals(6, session.selectorCount());
+    }
+
+    @Test
+    public void testCapturedSelectorsDoNotFillThePage() {
+        SessionState session = new SessionState(2, 3);
+        session.enterPage("https://example.com/catalog");
+        for (int i = 0; i < 50; i++) {
+            session.markKnown("https://example.com/catalog", "By.id: item-" + i);
+        }
+        for (int i = 0; i < 3; i++) {
+            session.markRegistered("https://example.com/catalog", "By.cssSelector: .looked-up-" + i);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertTrue(session.isRegistered("By.id: item-" + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(session.isRegistered("By.cssSelector: .looked-up-" + i));
+        }
+    }
+
+    @Test
+    public void testCurrentPageFollowsItsEntryAfterEviction() {
+        SessionState session = new SessionState(1, 10);
+        session.enterPage("https://example.com/login");
+        // Registered on another page (e.g. by a capture racing a navigation): the current page is evicted
+        session.markRegistered("https://example.com/other", "By.id: elsewhere");
+        assertEquals(1, session.pageCount());
+
+        session.markRegistered("https://example.com/login", "By.id: user");
+        assertTrue(session.isRegistered("By.id: user"));
+        session.enterPage("https://example.com/login");
+        assertTrue(session.isRegistered("By.id: user"));
+    }
+
+    @Test
+    public void testClickNavigationIsNoticed() {
+        FakeWebDriver driver = newDriver();
+        driver.get("https://example.com/cart");
+        driver.findElement(By.id("field-1"));
+        SessionState session = aspect().sessionFor(driver);
+
+        // The link leads to another page with an element of the same id
+        WebElement link = driver.findElement(By.id("field-2"));
+        long scripts = driver.scriptCalls.get();
+        driver.setCurrentUrl("https://example.com/checkout");
+        link.click();
+        driver.findElement(By.id("field-1"));
+        assertEquals(PageUrls.normalize("https://example.com/checkout"), session.currentPage());
+        assertTrue(driver.scriptCalls.get() > scripts, "field-1 was not registered on the new page");
+
+        // Known there now, and no URL is re-read until the next click
+        scripts = driver.scriptCalls.get();
+        driver.findElement(By.id("field-1"));
+        assertEquals(scripts, driver.scriptCalls.get());
+        assertFalse(session.isPageUnverified());
+        driver.quit();
+    }
+
+    // Dozens of drivers in parallel, as with JUnit parallel execution: each driver holds its first script call
+    // until every driver is inside one, which only happens when the aspect does not serialize the sessions.
+    // Every session then does exactly the work it does alone, and with a browser round trip per call all of them
+    // together take a fraction of what they would one after the other.
+    @Test
+    public void testParallelSessionsDoNotSerialize() throws Exception {
+        SelfHealingSeleniumAspect aspect = aspect();
+        int openBefore = aspect.openSessionCount();
+
+        long roundTripMs = 2;
+        FakeWebDriver alone = newDriver();
+        alone.setRoundTripMs(roundTripMs);
+        long aloneStart = System.nanoTime();
+        int expectedLookups = runSession(alone);
+        long aloneNanos = System.nanoTime() - aloneStart;
+        long expectedScripts = alone.scriptCalls.get();
+
+        int drivers = 48;
+        CountDownLatch inside = new CountDownLatch(drivers);
+        AtomicInteger stalled = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(drivers);
+        try {
+            List<FakeWebDriver> started = new ArrayList<>();
+            List<Future<Integer>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < drivers; i++) {
+                FakeWebDriver driver = new FakeWebDriver("https://example.com/page-0") {
+                    private boolean first = true;
+
+                    @Override
+                    public Object executeScript(String script, Object... args) {
+                        if (first) {
+                            first = false;
+                            inside.countDown();
+                            try {
+                                if (!inside.await(20, TimeUnit.SECONDS)) {
+                                    stalled.incrementAndGet();
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        return super.executeScript(script, args);
+                    }
+                };
+                for (int j = 0; j < SELECTORS; j++) {
+                    driver.addElement("By.id: field-" + j, "input", "", Map.of("id", "field-" + j));
+                }
+                driver.setRoundTripMs(roundTripMs);
+                started.add(driver);
+                results.add(workers.submit(() -> runSession(driver)));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(expectedLookups, result.get(60, TimeUnit.SECONDS));
+            }
+            long parallelNanos = System.nanoTime() - start;
+            // Serialized sessions would take drivers * aloneNanos
+            assertTrue(parallelNanos < aloneNanos * drivers / 8,
+                    drivers + " sessions took " + parallelNanos / 1_000_000 + " ms, one alone " + aloneNanos / 1_000_000 + " ms");
+            assertEquals(0, stalled.get(), "drivers waited for another session's lookup");
+            for (FakeWebDriver driver : started) {
+                assertEquals(expectedScripts, driver.scriptCalls.get());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        assertEquals(openBefore, aspect.openSessionCount());
+    }
+}
@@ -0,0 +1,54 @@
+package com.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestStubHealingServer {
+
+    private static SelfHealingSdk.HealRequest healRequest(String selector) {
+        SelfHealingSdk.HealRequest request = new SelfHealingSdk.HealRequest();
+        request.failed_selector = selector;
+        request.context = Map.of("page_url", "https://app/login");
+        return request;
+    }
+
+    @Test
+    public void testInjectedLatency() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            server.addHealRule("By.id: old", "By.id: new");
+            server.setLatency(100, 20);
+            SelfHealingSdk sdk = new SelfHealingSdk(new JdkHttpTransport(server.baseUrl()));
+            long start = System.nanoTime();
+            assertEquals("By.id: new", sdk.healSelector(healRequest("By.id: old")).healed_selector);
+            assertTrue(System.nanoTime() - start >= 100_000_000L);
+        }
+    }
+
+    @Test
+    public void testInjectedFailuresAndHealth() throws Exception {
+        try (StubHealingServer server = new StubHealingServer()) {
+            JdkHttpTransport transport = new JdkHttpTransport(server.baseUrl());
+            transport.get("/health").close();
+            assertEquals(1, server.healthCalls.get());
+
+            server.setFailureRate(1.0, 500);
+            SelfHealingSdk sdk = new SelfHealingSdk(transport);
+            SelfHealingHttpException error = assertThrows(SelfHealingHttpException.class, () -> sdk.healSelector(healRequest("By.id: a")));
+            assertEquals(500, error.getStatusCode());
+            // Health is not subject to the failure rate, only to the server being down
+            transport.get("/health").close();
+
+            server.setFailureRate(0, 500);
+            server.setDown(true);
+            assertEquals(503, assertThrows(SelfHealingHttpException.class, () -> transport.get("/health")).getStatusCode());
+            assertEquals(503, assertThrows(SelfHealingHttpException.class, () -> sdk.healSelector(healRequest("By.id: b"))).getStatusCode());
+            assertEquals(2, server.injectedFailures.get());
+
+            server.setDown(false);
+            assertNull(sdk.healSelector(healRequest("By.id: c")).healed_selector);
+        }
+    }
+}